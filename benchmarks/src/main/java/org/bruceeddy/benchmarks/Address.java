@@ -0,0 +1,16 @@
+package org.bruceeddy.benchmarks;
+
+final class Address {
+
+    final int streetNumber;
+    final String streetName;
+
+    Address(int streetNumber, String streetName) {
+        this.streetNumber = streetNumber;
+        this.streetName = streetName;
+    }
+
+    Address withStreetNumber(int streetNumber) {
+        return new Address(streetNumber, streetName);
+    }
+}
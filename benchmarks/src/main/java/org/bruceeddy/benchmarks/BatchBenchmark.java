@@ -0,0 +1,71 @@
+package org.bruceeddy.benchmarks;
+
+import org.bruceeddy.Lens;
+import org.bruceeddy.Lenses;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.stream.Collectors.toList;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BatchBenchmark {
+
+    @Param({"10000"})
+    private int size;
+
+    private List<Address> addresses;
+    private Address[] addressArray;
+    private Lens<Address, Integer> streetNumber;
+
+    @Setup
+    public void setup() {
+        addresses = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            addresses.add(new Address(i, "The High Street"));
+        }
+        addressArray = addresses.toArray(new Address[0]);
+        streetNumber = Lenses.gen(a -> a.streetNumber, (i, a) -> new Address(i, a.streetName));
+    }
+
+    @Benchmark
+    public List<Address> handWritten() {
+        List<Address> modified = new ArrayList<>(addresses.size());
+        for (Address a : addresses) {
+            modified.add(a.withStreetNumber(a.streetNumber + 1));
+        }
+        return modified;
+    }
+
+    @Benchmark
+    public List<Address> streamOfModify() {
+        return addresses.stream().map(streetNumber.modify(x -> x + 1)).collect(toList());
+    }
+
+    @Benchmark
+    public List<Address> modifyAllList() {
+        return streetNumber.modifyAll(addresses, x -> x + 1);
+    }
+
+    @Benchmark
+    public Address[] modifyAllArray() {
+        return streetNumber.modifyAll(addressArray, x -> x + 1);
+    }
+}
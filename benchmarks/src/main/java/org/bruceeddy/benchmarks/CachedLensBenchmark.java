@@ -0,0 +1,56 @@
+package org.bruceeddy.benchmarks;
+
+import org.bruceeddy.Lens;
+import org.bruceeddy.Lenses;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Repeated reads of a derived view - a normalised street name - from the same snapshot, shared between threads.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class CachedLensBenchmark {
+
+    private Person snapshot;
+    private Lens<Person, String> normalised;
+    private Lens<Person, String> cached;
+
+    @Setup
+    public void setup() {
+        snapshot = new Person("Joyo", 99, new Address(10, "  The   High Street  "));
+        Lens<Person, Address> address = Lenses.gen(p -> p.address, (a, p) -> p.withAddress(a));
+        Lens<Address, String> normalisedName = Lenses.gen(
+                a -> a.streetName.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT),
+                (n, a) -> new Address(a.streetNumber, n));
+        normalised = normalisedName.compose(address);
+        cached = Lenses.cached(normalised, 1024);
+    }
+
+    @Benchmark
+    public String uncachedGet() {
+        return normalised.get(snapshot);
+    }
+
+    @Benchmark
+    public String cachedGet() {
+        return cached.get(snapshot);
+    }
+}
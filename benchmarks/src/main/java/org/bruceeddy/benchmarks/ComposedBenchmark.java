@@ -0,0 +1,111 @@
+package org.bruceeddy.benchmarks;
+
+import org.bruceeddy.Lens;
+import org.bruceeddy.Lenses;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ComposedBenchmark {
+
+    @Param({"2", "4", "8", "16"})
+    private int depth;
+
+    private Node root;
+    private Lens<Node, Integer> path;
+
+    @Setup
+    public void setup() {
+        root = Node.chain(depth);
+
+        Lens<Node, Node> child = Lenses.gen(n -> n.child, (c, n) -> new Node(n.value, c));
+        Lens<Node, Integer> value = Lenses.gen(n -> n.value, (v, n) -> new Node(v, n.child));
+
+        Lens<Node, Integer> p = value;
+        for (int i = 1; i < depth; i++) {
+            p = p.compose(child);
+        }
+        path = p;
+    }
+
+    @Benchmark
+    public int handWrittenGet() {
+        return Node.getAt(root, depth);
+    }
+
+    @Benchmark
+    public Node handWrittenSet() {
+        return Node.setAt(root, depth, 20);
+    }
+
+    @Benchmark
+    public Node handWrittenModify() {
+        return Node.setAt(root, depth, Node.getAt(root, depth) + 1);
+    }
+
+    @Benchmark
+    public Integer get() {
+        return path.get(root);
+    }
+
+    @Benchmark
+    public Node set() {
+        return path.set(20).apply(root);
+    }
+
+    @Benchmark
+    public Node modify() {
+        return path.modify(x -> x + 1).apply(root);
+    }
+
+    @Benchmark
+    public Node setDirect() {
+        return path.set(root, 20);
+    }
+
+    @Benchmark
+    public Node modifyDirect() {
+        return path.modify(root, x -> x + 1);
+    }
+
+    @Benchmark
+    public Node modifyNoOp() {
+        return path.modify(root, x -> x);
+    }
+
+    @Benchmark
+    public List<Node> modifyFList() {
+        return path.modifyFList(n -> Arrays.asList(n - 1, n + 1)).apply(root);
+    }
+
+    @Benchmark
+    public Optional<Node> modifyFOptional() {
+        return path.modifyFOptional(n -> Optional.of(n + 1)).apply(root);
+    }
+
+    @Benchmark
+    public Node modifyFFuture() {
+        return path.modifyFFuture(n -> completedFuture(n + 1)).apply(root).join();
+    }
+}
@@ -0,0 +1,78 @@
+package org.bruceeddy.benchmarks;
+
+import org.bruceeddy.Lens;
+import org.bruceeddy.Lenses;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lenses.derive against Lenses.gen and against plain reflection, which is what derive replaces.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DerivedLensBenchmark {
+
+    private Address anAddress;
+    private Lens<Address, Integer> generated;
+    private Lens<Address, Integer> derived;
+    private Field streetNumber;
+    private Field streetName;
+    private Constructor<Address> constructor;
+
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+        anAddress = new Address(10, "The High Street");
+        generated = Lenses.gen(a -> a.streetNumber, (i, a) -> new Address(i, a.streetName));
+        derived = Lenses.derive(Address.class, "streetNumber");
+
+        streetNumber = Address.class.getDeclaredField("streetNumber");
+        streetName = Address.class.getDeclaredField("streetName");
+        constructor = Address.class.getDeclaredConstructor(int.class, String.class);
+    }
+
+    @Benchmark
+    public Integer genGet() {
+        return generated.get(anAddress);
+    }
+
+    @Benchmark
+    public Address genSet() {
+        return generated.set(anAddress, 20);
+    }
+
+    @Benchmark
+    public Integer deriveGet() {
+        return derived.get(anAddress);
+    }
+
+    @Benchmark
+    public Address deriveSet() {
+        return derived.set(anAddress, 20);
+    }
+
+    @Benchmark
+    public Integer reflectiveGet() throws IllegalAccessException {
+        return (Integer) streetNumber.get(anAddress);
+    }
+
+    @Benchmark
+    public Address reflectiveSet() throws ReflectiveOperationException {
+        return constructor.newInstance(20, streetName.get(anAddress));
+    }
+}
@@ -0,0 +1,77 @@
+package org.bruceeddy.benchmarks;
+
+import org.bruceeddy.Edit;
+import org.bruceeddy.Lens;
+import org.bruceeddy.Lenses;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Several sets at the bottom of a deep chain, one after another against all in one edit session.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EditBenchmark {
+
+    private static final int DEPTH = 12;
+
+    @Param({"2", "5", "10"})
+    private int updates;
+
+    private Node root;
+    private Lens<Node, Integer>[] paths;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        root = Node.chain(DEPTH);
+
+        Lens<Node, Node> child = Lenses.gen(n -> n.child, (c, n) -> new Node(n.value, c));
+        Lens<Node, Integer> value = Lenses.gen(n -> n.value, (v, n) -> new Node(v, n.child));
+
+        Lens<Node, Node> spine = child;
+        for (int i = 2; i < DEPTH - 1; i++) {
+            spine = spine.compose(child);
+        }
+        Lens<Node, Integer> last = value.compose(child).compose(spine);
+        Lens<Node, Integer> secondLast = value.compose(spine);
+
+        paths = new Lens[updates];
+        for (int i = 0; i < updates; i++) {
+            paths[i] = i % 2 == 0 ? last : secondLast;
+        }
+    }
+
+    @Benchmark
+    public Node sequentialSets() {
+        Node n = root;
+        for (int i = 0; i < paths.length; i++) {
+            n = paths[i].set(n, -i);
+        }
+        return n;
+    }
+
+    @Benchmark
+    public Node editSession() {
+        Edit<Node> edit = Lenses.edit(root);
+        for (int i = 0; i < paths.length; i++) {
+            edit.set(paths[i], -i);
+        }
+        return edit.commit();
+    }
+}
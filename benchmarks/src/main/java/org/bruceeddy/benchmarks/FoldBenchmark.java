@@ -0,0 +1,78 @@
+package org.bruceeddy.benchmarks;
+
+import org.bruceeddy.Fold;
+import org.bruceeddy.Folds;
+import org.bruceeddy.IntLens;
+import org.bruceeddy.IntLenses;
+import org.bruceeddy.Lens;
+import org.bruceeddy.Lenses;
+import org.bruceeddy.Traversal;
+import org.bruceeddy.Traversals;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Totalling street numbers across many people: getAll then summing, against a Fold.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FoldBenchmark {
+
+    @Param({"1000000"})
+    private int size;
+
+    private List<Person> people;
+    private Traversal<List<Person>, Address> traversal;
+    private Fold<List<Person>, Address> fold;
+    private Fold<List<Person>, Address> parallelFold;
+    private IntLens<Address> streetNumber;
+
+    @Setup
+    public void setup() {
+        people = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            people.add(new Person("Joyo", 99, new Address(i % 1000, "The High Street")));
+        }
+        Lens<Person, Address> address = Lenses.gen(p -> p.address, (a, p) -> p.withAddress(a));
+        streetNumber = IntLenses.gen(a -> a.streetNumber, (n, a) -> a.withStreetNumber(n));
+        traversal = Traversals.<Person>list().andThen(address);
+        fold = Folds.<Person>list().andThen(address);
+        parallelFold = fold.parallel();
+    }
+
+    @Benchmark
+    public long getAllThenSum() {
+        long total = 0;
+        for (Address a : traversal.getAll(people)) {
+            total += streetNumber.get(a);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long foldSumLong() {
+        return fold.sumLong(people, a -> streetNumber.get(a));
+    }
+
+    @Benchmark
+    public long parallelFoldSumLong() {
+        return parallelFold.sumLong(people, a -> streetNumber.get(a));
+    }
+}
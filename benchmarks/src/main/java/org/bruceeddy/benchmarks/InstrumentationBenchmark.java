@@ -0,0 +1,63 @@
+package org.bruceeddy.benchmarks;
+
+import org.bruceeddy.Instrumentation;
+import org.bruceeddy.Lens;
+import org.bruceeddy.Lenses;
+import org.bruceeddy.OpticStats;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cost of an instrumented modify, against the same lens built while instrumentation was off.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class InstrumentationBenchmark {
+
+    @Param({"false", "true"})
+    private boolean allocations;
+
+    private Address address;
+    private Lens<Address, Integer> plain;
+    private Lens<Address, Integer> instrumented;
+
+    @Setup
+    public void setup() {
+        address = new Address(10, "The High Street");
+        Lens<Address, Integer> streetNumber = Lenses.gen(a -> a.streetNumber, (n, a) -> a.withStreetNumber(n));
+        plain = Lenses.instrumented("streetNumber", streetNumber);
+        Instrumentation.enable(new OpticStats(), allocations);
+        instrumented = Lenses.instrumented("streetNumber", streetNumber);
+    }
+
+    @TearDown
+    public void tearDown() {
+        Instrumentation.disable();
+    }
+
+    @Benchmark
+    public Address disabled() {
+        return plain.modify(address, n -> n + 1);
+    }
+
+    @Benchmark
+    public Address enabled() {
+        return instrumented.modify(address, n -> n + 1);
+    }
+}
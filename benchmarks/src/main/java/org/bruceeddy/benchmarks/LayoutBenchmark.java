@@ -0,0 +1,67 @@
+package org.bruceeddy.benchmarks;
+
+import org.bruceeddy.IntLens;
+import org.bruceeddy.Layout;
+import org.bruceeddy.Lens;
+import org.bruceeddy.Lenses;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Incrementing a nested int in every one of 1000 binary records: decoding each to a Person, modifying it through
+ * a composed lens and encoding it back, against a Layout field lens writing in place.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LayoutBenchmark {
+
+    private static final int RECORDS = 1000;
+
+    private Layout person;
+    private ByteBuffer buf;
+    private IntLens<ByteBuffer> streetNumberField;
+    private Lens<Person, Integer> streetNumber;
+
+    @Setup
+    public void setup() {
+        Layout address = Layout.builder().int32("streetNumber").build();
+        person = Layout.builder().int32("age").struct("address", address).build();
+        buf = ByteBuffer.allocateDirect(person.size() * RECORDS);
+        streetNumberField = address.intField("streetNumber").compose(person.struct("address"));
+        Lens<Person, Address> addressLens = Lenses.gen(p -> p.address, (a, p) -> p.withAddress(a));
+        streetNumber = Lenses.<Address, Integer>gen(a -> a.streetNumber, (n, a) -> a.withStreetNumber(n)).compose(addressLens);
+    }
+
+    @Benchmark
+    public ByteBuffer decodeModifyEncode() {
+        for (int i = 0; i < RECORDS; i++) {
+            int at = i * person.size();
+            Person p = new Person("", buf.getInt(at), new Address(buf.getInt(at + 4), ""));
+            p = streetNumber.modify(p, n -> n + 1);
+            buf.putInt(at, p.age);
+            buf.putInt(at + 4, p.address.streetNumber);
+        }
+        return buf;
+    }
+
+    @Benchmark
+    public ByteBuffer layoutInPlace() {
+        person.modifyAll(buf, streetNumberField, n -> n + 1);
+        return buf;
+    }
+}
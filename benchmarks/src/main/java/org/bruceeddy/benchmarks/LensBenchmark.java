@@ -0,0 +1,129 @@
+package org.bruceeddy.benchmarks;
+
+import org.bruceeddy.Applicative;
+import org.bruceeddy.Applicatives;
+import org.bruceeddy.IntLens;
+import org.bruceeddy.IntLenses;
+import org.bruceeddy.Lens;
+import org.bruceeddy.Lenses;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LensBenchmark {
+
+    private static final Applicative<Integer> FIRST = Applicatives.constant(null, (a, b) -> a);
+
+    private Address anAddress;
+    private Lens<Address, Integer> streetNumber;
+    private IntLens<Address> intStreetNumber;
+
+    @Setup
+    public void setup() {
+        anAddress = new Address(10, "The High Street");
+        streetNumber = Lenses.gen(a -> a.streetNumber, (i, a) -> new Address(i, a.streetName));
+        intStreetNumber = IntLenses.gen(a -> a.streetNumber, (i, a) -> new Address(i, a.streetName));
+    }
+
+    @Benchmark
+    public int handWrittenGet() {
+        return anAddress.streetNumber;
+    }
+
+    @Benchmark
+    public Address handWrittenSet() {
+        return anAddress.withStreetNumber(20);
+    }
+
+    @Benchmark
+    public Address handWrittenModify() {
+        return anAddress.withStreetNumber(anAddress.streetNumber + 1);
+    }
+
+    @Benchmark
+    public Integer get() {
+        return streetNumber.get(anAddress);
+    }
+
+    @Benchmark
+    public Address set() {
+        return streetNumber.set(20).apply(anAddress);
+    }
+
+    @Benchmark
+    public Address modify() {
+        return streetNumber.modify(x -> x + 1).apply(anAddress);
+    }
+
+    @Benchmark
+    public Address setDirect() {
+        return streetNumber.set(anAddress, 20);
+    }
+
+    @Benchmark
+    public Address modifyDirect() {
+        return streetNumber.modify(anAddress, x -> x + 1);
+    }
+
+    @Benchmark
+    public int intGet() {
+        return intStreetNumber.get(anAddress);
+    }
+
+    @Benchmark
+    public Address intSetDirect() {
+        return intStreetNumber.set(anAddress, 20);
+    }
+
+    @Benchmark
+    public Address intModifyDirect() {
+        return intStreetNumber.modify(anAddress, x -> x + 1);
+    }
+
+    @Benchmark
+    public List<Address> modifyFList() {
+        return streetNumber.modifyFList(n -> Arrays.asList(n - 1, n + 1)).apply(anAddress);
+    }
+
+    @Benchmark
+    public Optional<Address> modifyFOptional() {
+        return streetNumber.modifyFOptional(n -> Optional.of(n + 1)).apply(anAddress);
+    }
+
+    @Benchmark
+    public Object modifyFThroughIdentity() {
+        return streetNumber.modifyF(Applicatives.identity(), anAddress, x -> x + 1);
+    }
+
+    @Benchmark
+    public Integer getThroughConst() {
+        return streetNumber.modifyF(FIRST, anAddress, x -> x);
+    }
+
+    @Benchmark
+    public Address modifyFFuture() {
+        CompletableFuture<Address> modified = streetNumber.modifyFFuture(n -> completedFuture(n + 1)).apply(anAddress);
+        return modified.join();
+    }
+}
@@ -0,0 +1,81 @@
+package org.bruceeddy.benchmarks;
+
+import org.bruceeddy.Lens;
+import org.bruceeddy.LensRef;
+import org.bruceeddy.Lenses;
+import org.bruceeddy.StripedLensRef;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * Many threads updating shared state through a composed lens: AtomicReference.updateAndGet, LensRef, and a
+ * StripedLensRef with the two fields being written on separate stripes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class LensRefBenchmark {
+
+    private AtomicReference<Person> atomic;
+    private LensRef<Person> ref;
+    private StripedLensRef<Person> striped;
+    private Lens<Person, Integer> streetNumber;
+    private Lens<Person, Integer> age;
+    private UnaryOperator<Person> increment;
+
+    @Setup
+    public void setup() {
+        Person person = new Person("Joyo", 0, new Address(0, "The High Street"));
+        Lens<Person, Address> address = Lenses.gen(p -> p.address, (a, p) -> p.withAddress(a));
+        age = Lenses.gen(p -> p.age, (a, p) -> new Person(p.name, a, p.address));
+        streetNumber = Lenses.<Address, Integer>gen(a -> a.streetNumber, (n, a) -> a.withStreetNumber(n)).compose(address);
+        increment = streetNumber.modify(n -> n + 1)::apply;
+        atomic = new AtomicReference<>(person);
+        ref = new LensRef<>(person);
+        striped = new StripedLensRef<>(person, Arrays.asList(address, age));
+    }
+
+    @Benchmark
+    public Person atomicReference() {
+        return atomic.updateAndGet(increment);
+    }
+
+    @Benchmark
+    public Person lensRef() {
+        return ref.modify(streetNumber, n -> n + 1);
+    }
+
+    @Benchmark
+    public Person stripedLensRef(ThreadIndex index) {
+        return index.even ? striped.modify(streetNumber, n -> n + 1) : striped.modify(age, a -> a + 1);
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadIndex {
+        private static final AtomicReference<Boolean> NEXT = new AtomicReference<>(true);
+        boolean even;
+
+        @Setup
+        public void setup() {
+            even = NEXT.getAndUpdate(b -> !b);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package org.bruceeddy.benchmarks;
+
+/**
+ * A linked chain of immutable records, used to measure composed lenses at a chosen depth.
+ */
+final class Node {
+
+    final int value;
+    final Node child;
+
+    Node(int value, Node child) {
+        this.value = value;
+        this.child = child;
+    }
+
+    static Node chain(int depth) {
+        Node n = new Node(depth, null);
+        for (int i = depth - 1; i > 0; i--) {
+            n = new Node(i, n);
+        }
+        return n;
+    }
+
+    /**
+     * The hand-written equivalent of setting {@code value} at {@code depth} via a composed lens.
+     */
+    static Node setAt(Node n, int depth, int value) {
+        return depth == 1
+                ? new Node(value, n.child)
+                : new Node(n.value, setAt(n.child, depth - 1, value));
+    }
+
+    static int getAt(Node n, int depth) {
+        for (int i = 1; i < depth; i++) {
+            n = n.child;
+        }
+        return n.value;
+    }
+}
@@ -0,0 +1,68 @@
+package org.bruceeddy.benchmarks;
+
+import org.bruceeddy.Lens;
+import org.bruceeddy.Lenses;
+import org.bruceeddy.PatchCodecs;
+import org.bruceeddy.PatchRecorder;
+import org.bruceeddy.PatchSchema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A set through a composed lens: plain, recorded and encoded as a patch, and that patch decoded and applied to a
+ * replica.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PatchBenchmark {
+
+    private Person person;
+    private Lens<Person, Integer> streetNumber;
+    private PatchSchema<Person> schema;
+    private PatchRecorder<Person> recorder;
+    private Lens<Person, Integer> recording;
+    private byte[] patch;
+    private int n;
+
+    @Setup
+    public void setup() {
+        person = new Person("Joyo", 0, new Address(0, "The High Street"));
+        Lens<Person, Address> address = Lenses.gen(p -> p.address, (a, p) -> p.withAddress(a));
+        streetNumber = Lenses.<Address, Integer>gen(a -> a.streetNumber, (s, a) -> a.withStreetNumber(s)).compose(address);
+        schema = PatchSchema.<Person>builder().lens(0, streetNumber, PatchCodecs.INT).build();
+        recorder = schema.recorder();
+        recording = recorder.recording(streetNumber);
+        recording.set(person, 42);
+        patch = recorder.drain().encode();
+    }
+
+    @Benchmark
+    public Person set() {
+        return streetNumber.set(person, ++n);
+    }
+
+    @Benchmark
+    public byte[] recordAndEncode() {
+        recording.set(person, ++n);
+        return recorder.drain().encode();
+    }
+
+    @Benchmark
+    public Person decodeAndApply() {
+        return schema.apply(person, patch);
+    }
+}
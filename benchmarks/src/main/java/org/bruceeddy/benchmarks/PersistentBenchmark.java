@@ -0,0 +1,94 @@
+package org.bruceeddy.benchmarks;
+
+import org.bruceeddy.Lens;
+import org.bruceeddy.Lenses;
+import org.bruceeddy.PersistentMap;
+import org.bruceeddy.PersistentVector;
+import org.bruceeddy.Shutter;
+import org.bruceeddy.Shutters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One keyed or indexed update of a big collection: copying java.util collections against path copying the
+ * persistent ones.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PersistentBenchmark {
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private Map<Integer, Integer> hashMap;
+    private List<Integer> arrayList;
+    private PersistentMap<Integer, Integer> map;
+    private PersistentVector<Integer> vector;
+    private Lens<PersistentMap<Integer, Integer>, Optional<Integer>> at;
+    private Shutter<PersistentMap<Integer, Integer>, Integer> present;
+    private Shutter<PersistentVector<Integer>, Integer> index;
+
+    @Setup
+    public void setup() {
+        hashMap = new HashMap<>();
+        arrayList = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            hashMap.put(i, i);
+            arrayList.add(i);
+        }
+        map = PersistentMap.from(hashMap);
+        vector = PersistentVector.from(arrayList);
+        at = Lenses.at(size / 2);
+        present = Shutters.at(size / 2);
+        index = Shutters.index(size / 2);
+    }
+
+    @Benchmark
+    public Map<Integer, Integer> copyHashMapAndPut() {
+        Map<Integer, Integer> copy = new HashMap<>(hashMap);
+        copy.put(size / 2, -1);
+        return copy;
+    }
+
+    @Benchmark
+    public PersistentMap<Integer, Integer> atLensSet() {
+        return at.set(map, Optional.of(-1));
+    }
+
+    @Benchmark
+    public PersistentMap<Integer, Integer> atShutterModify() {
+        return present.modify(map, x -> x + 1);
+    }
+
+    @Benchmark
+    public List<Integer> copyArrayListAndSet() {
+        List<Integer> copy = new ArrayList<>(arrayList);
+        copy.set(size / 2, -1);
+        return copy;
+    }
+
+    @Benchmark
+    public PersistentVector<Integer> indexShutterModify() {
+        return index.modify(vector, x -> x + 1);
+    }
+}
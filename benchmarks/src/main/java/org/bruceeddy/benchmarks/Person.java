@@ -0,0 +1,18 @@
+package org.bruceeddy.benchmarks;
+
+final class Person {
+
+    final String name;
+    final int age;
+    final Address address;
+
+    Person(String name, int age, Address address) {
+        this.name = name;
+        this.age = age;
+        this.address = address;
+    }
+
+    Person withAddress(Address address) {
+        return new Person(name, age, address);
+    }
+}
@@ -0,0 +1,80 @@
+package org.bruceeddy.benchmarks;
+
+import org.bruceeddy.IntLens;
+import org.bruceeddy.Layout;
+import org.bruceeddy.RecordFile;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Incrementing a field of every one of a million records of a memory-mapped file, sequentially and in parallel,
+ * in each mode - copy on write with a snapshot open, so that every page is copied once.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RecordFileBenchmark {
+
+    private static final int RECORDS = 1_000_000;
+
+    @Param({"IN_PLACE", "COPY_ON_WRITE"})
+    private RecordFile.Mode mode;
+
+    private Path path;
+    private RecordFile file;
+    private IntLens<ByteBuffer> balance;
+
+    @Setup
+    public void setup() throws IOException {
+        Layout account = Layout.builder().int64("id").int32("balance").padding(4).build();
+        balance = account.intField("balance");
+        path = Files.createTempFile("records", ".bin");
+        file = RecordFile.create(path, account, RECORDS, mode);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        file.close();
+        Files.delete(path);
+    }
+
+    @Benchmark
+    public RecordFile modifyAll() {
+        return snapshotting(file);
+    }
+
+    @Benchmark
+    public RecordFile parallelModifyAll() {
+        return snapshotting(file.parallel());
+    }
+
+    private RecordFile snapshotting(RecordFile f) {
+        if (mode == RecordFile.Mode.IN_PLACE) {
+            f.modifyAll(balance, b -> b + 1);
+        } else {
+            try (RecordFile.Snapshot ignored = f.snapshot()) {
+                f.modifyAll(balance, b -> b + 1);
+            }
+        }
+        return f;
+    }
+}
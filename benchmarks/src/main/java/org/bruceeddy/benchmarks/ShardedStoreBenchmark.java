@@ -0,0 +1,77 @@
+package org.bruceeddy.benchmarks;
+
+import org.bruceeddy.Lens;
+import org.bruceeddy.Lenses;
+import org.bruceeddy.ShardedStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Many threads updating and reading random keys of a million, through a composed lens: a ConcurrentHashMap whose
+ * compute applies the lens, and a ShardedStore, each update waiting until it has been applied.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class ShardedStoreBenchmark {
+
+    private static final int KEYS = 1_000_000;
+
+    @Param({"1", "64"})
+    private int shards;
+
+    private ConcurrentHashMap<Integer, Person> map;
+    private ShardedStore<Integer, Person> store;
+    private Lens<Person, Integer> streetNumber;
+
+    @Setup
+    public void setup() {
+        Lens<Person, Address> address = Lenses.gen(p -> p.address, (a, p) -> p.withAddress(a));
+        streetNumber = Lenses.<Address, Integer>gen(a -> a.streetNumber, (n, a) -> a.withStreetNumber(n)).compose(address);
+        map = new ConcurrentHashMap<>(KEYS * 2);
+        store = new ShardedStore<>(shards);
+        Person person = new Person("Joyo", 0, new Address(0, "The High Street"));
+        for (int k = 0; k < KEYS; k++) {
+            map.put(k, person);
+            store.put(k, person);
+        }
+    }
+
+    @Benchmark
+    public Person concurrentHashMapUpdate() {
+        return map.compute(ThreadLocalRandom.current().nextInt(KEYS), (k, p) -> streetNumber.modify(p, n -> n + 1));
+    }
+
+    @Benchmark
+    public Person shardedStoreUpdate() {
+        return store.update(ThreadLocalRandom.current().nextInt(KEYS), streetNumber, n -> n + 1).join();
+    }
+
+    @Benchmark
+    public Integer concurrentHashMapRead() {
+        return streetNumber.get(map.get(ThreadLocalRandom.current().nextInt(KEYS)));
+    }
+
+    @Benchmark
+    public Integer shardedStoreRead() {
+        return store.get(ThreadLocalRandom.current().nextInt(KEYS), streetNumber);
+    }
+}
@@ -0,0 +1,111 @@
+package org.bruceeddy.benchmarks;
+
+import org.bruceeddy.Lenses;
+import org.bruceeddy.Shutter;
+import org.bruceeddy.Shutters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ShutterBenchmark {
+
+    private Person withAddress;
+    private Person withoutAddress;
+    private Shutter<Person, Address> address;
+    private Shutter<Person, Address> nullableAddress;
+    private Shutter<Person, Integer> streetNumber;
+
+    @Setup
+    public void setup() {
+        withAddress = new Person("Joyo", 99, new Address(10, "The High Street"));
+        withoutAddress = new Person("Joyo", 99, null);
+        address = Shutters.gen(p -> Optional.ofNullable(p.address), (a, p) -> p.address == null ? p : p.withAddress(a));
+        nullableAddress = Shutters.ofNullable(p -> p.address, (a, p) -> p.address == null ? p : p.withAddress(a));
+        streetNumber = nullableAddress.andThen(Lenses.gen(a -> a.streetNumber, (n, a) -> a.withStreetNumber(n)));
+    }
+
+    @Benchmark
+    public Person handWrittenModifyPresent() {
+        return withAddress.address == null
+                ? withAddress
+                : withAddress.withAddress(withAddress.address.withStreetNumber(withAddress.address.streetNumber + 1));
+    }
+
+    @Benchmark
+    public Person handWrittenModifyAbsent() {
+        return withoutAddress.address == null
+                ? withoutAddress
+                : withoutAddress.withAddress(withoutAddress.address.withStreetNumber(withoutAddress.address.streetNumber + 1));
+    }
+
+    @Benchmark
+    public Person modifyPresent() {
+        return address.modify(a -> a.withStreetNumber(a.streetNumber + 1)).apply(withAddress);
+    }
+
+    @Benchmark
+    public Person modifyAbsent() {
+        return address.modify(a -> a.withStreetNumber(a.streetNumber + 1)).apply(withoutAddress);
+    }
+
+    @Benchmark
+    public Person modifyDirectPresent() {
+        return address.modify(withAddress, a -> a.withStreetNumber(a.streetNumber + 1));
+    }
+
+    @Benchmark
+    public Person modifyDirectAbsent() {
+        return address.modify(withoutAddress, a -> a.withStreetNumber(a.streetNumber + 1));
+    }
+
+    @Benchmark
+    public Optional<Person> modifyOptionalPresent() {
+        return address.modifyOptional(a -> a.withStreetNumber(a.streetNumber + 1)).apply(withAddress);
+    }
+
+    @Benchmark
+    public Optional<Person> modifyOptionalAbsent() {
+        return address.modifyOptional(a -> a.withStreetNumber(a.streetNumber + 1)).apply(withoutAddress);
+    }
+
+    @Benchmark
+    public Person modifyNullablePresent() {
+        return nullableAddress.modifyOrSame(withAddress, a -> a.withStreetNumber(a.streetNumber + 1));
+    }
+
+    @Benchmark
+    public Person modifyNullableAbsent() {
+        return nullableAddress.modifyOrSame(withoutAddress, a -> a.withStreetNumber(a.streetNumber + 1));
+    }
+
+    @Benchmark
+    public boolean nonEmptyNullable() {
+        return nullableAddress.nonEmpty(withAddress);
+    }
+
+    @Benchmark
+    public Person modifyComposedPresent() {
+        return streetNumber.modifyOrSame(withAddress, n -> n + 1);
+    }
+
+    @Benchmark
+    public Person modifyComposedAbsent() {
+        return streetNumber.modifyOrSame(withoutAddress, n -> n + 1);
+    }
+}
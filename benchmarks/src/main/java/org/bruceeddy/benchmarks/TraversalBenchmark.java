@@ -0,0 +1,84 @@
+package org.bruceeddy.benchmarks;
+
+import org.bruceeddy.Lens;
+import org.bruceeddy.Lenses;
+import org.bruceeddy.Traversal;
+import org.bruceeddy.Traversals;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TraversalBenchmark {
+
+    @Param({"1000000"})
+    private int size;
+
+    private List<Address> addresses;
+    private Traversal<List<Address>, Integer> sequential;
+    private Traversal<List<Address>, Integer> parallel;
+
+    @Setup
+    public void setup() {
+        addresses = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            addresses.add(new Address(i, "The High Street"));
+        }
+        Lens<Address, Integer> streetNumber = Lenses.gen(a -> a.streetNumber, (i, a) -> new Address(i, a.streetName));
+        sequential = Traversals.<Address>list().andThen(streetNumber);
+        parallel = sequential.parallel();
+    }
+
+    @Benchmark
+    public List<Address> modifySequential() {
+        return sequential.modify(addresses, x -> x + 1);
+    }
+
+    @Benchmark
+    public List<Address> modifyParallel() {
+        return parallel.modify(addresses, x -> x + 1);
+    }
+
+    @Benchmark
+    public Long foldMapSequential() {
+        return sequential.foldMap(addresses, x -> (long) x, 0L, Long::sum);
+    }
+
+    @Benchmark
+    public Long foldMapParallel() {
+        return parallel.foldMap(addresses, x -> (long) x, 0L, Long::sum);
+    }
+
+    @Benchmark
+    public Integer findViaGetAll() {
+        for (Integer n : sequential.getAll(addresses)) {
+            if (n == 10) {
+                return n;
+            }
+        }
+        return null;
+    }
+
+    @Benchmark
+    public Optional<Integer> find() {
+        return sequential.find(addresses, n -> n == 10);
+    }
+}
@@ -0,0 +1,257 @@
+package org.bruceeddy.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Writes a XxxLenses holder class for each class annotated with org.bruceeddy.GenerateLenses.
+ * <p>
+ * Each lens is its own small class, reading the field directly and setting it by calling the all-fields
+ * constructor, so every call site sees a single implementation rather than the one shared by all lambda-backed
+ * lenses from Lenses.gen.
+ */
+public class LensProcessor extends AbstractProcessor {
+
+    static final String ANNOTATION = "org.bruceeddy.GenerateLenses";
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Collections.singleton(ANNOTATION);
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            for (Element e : roundEnv.getElementsAnnotatedWith(annotation)) {
+                TypeElement type = (TypeElement) e;
+                List<Field> fields = fieldsOf(type);
+                if (fields != null) {
+                    write(type, fields);
+                }
+            }
+        }
+        return true;
+    }
+
+    private static class Field {
+        final String name;
+        final TypeMirror type;
+        final String read;
+
+        Field(String name, TypeMirror type, String read) {
+            this.name = name;
+            this.type = type;
+            this.read = read;
+        }
+    }
+
+    /**
+     * The fields to generate lenses for, or null (having reported an error) if this type can't have them.
+     */
+    private List<Field> fieldsOf(TypeElement type) {
+        Messager messager = processingEnv.getMessager();
+        boolean record = type.getKind().name().equals("RECORD");
+
+        if (type.getKind() != ElementKind.CLASS && !record) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "@GenerateLenses only applies to classes and records", type);
+            return null;
+        }
+        if (!type.getTypeParameters().isEmpty()) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "@GenerateLenses does not support generic classes", type);
+            return null;
+        }
+        for (Element t = type; t instanceof TypeElement; t = t.getEnclosingElement()) {
+            if (t.getModifiers().contains(Modifier.PRIVATE)
+                    || (((TypeElement) t).getNestingKind() == NestingKind.MEMBER && !t.getModifiers().contains(Modifier.STATIC))) {
+                messager.printMessage(Diagnostic.Kind.ERROR, "@GenerateLenses needs a class visible in its package, and not an inner class", type);
+                return null;
+            }
+        }
+
+        List<Field> fields = new ArrayList<>();
+        for (VariableElement f : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+            if (f.getModifiers().contains(Modifier.STATIC)) {
+                continue;
+            }
+            String name = f.getSimpleName().toString();
+            if (record) {
+                fields.add(new Field(name, f.asType(), "v." + name + "()"));
+            } else if (f.getModifiers().contains(Modifier.PRIVATE)) {
+                messager.printMessage(Diagnostic.Kind.ERROR, "@GenerateLenses can't read private field " + name, f);
+                return null;
+            } else {
+                fields.add(new Field(name, f.asType(), "v." + name));
+            }
+        }
+
+        if (!hasAllFieldsConstructor(type, fields)) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "@GenerateLenses needs a non-private constructor taking every instance field, in declaration order", type);
+            return null;
+        }
+        return fields;
+    }
+
+    private boolean hasAllFieldsConstructor(TypeElement type, List<Field> fields) {
+        Types types = processingEnv.getTypeUtils();
+        for (ExecutableElement c : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+            if (c.getModifiers().contains(Modifier.PRIVATE) || c.getParameters().size() != fields.size()) {
+                continue;
+            }
+            boolean matches = true;
+            for (int i = 0; i < fields.size(); i++) {
+                matches &= types.isSameType(types.erasure(c.getParameters().get(i).asType()), types.erasure(fields.get(i).type));
+            }
+            if (matches) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void write(TypeElement type, List<Field> fields) {
+        PackageElement pkg = processingEnv.getElementUtils().getPackageOf(type);
+        String packageName = pkg.isUnnamed() ? "" : pkg.getQualifiedName().toString();
+        String holder = holderName(type);
+        String target = type.getQualifiedName().toString();
+
+        StringBuilder src = new StringBuilder();
+        if (!packageName.isEmpty()) {
+            src.append("package ").append(packageName).append(";\n\n");
+        }
+        src.append("/**\n * Lenses for {@link ").append(target).append("}, generated by ")
+                .append(LensProcessor.class.getName()).append(".\n */\n");
+        src.append("public final class ").append(holder).append(" {\n\n");
+
+        for (Field f : fields) {
+            src.append("    public static final ").append(lensType(target, f)).append(' ').append(f.name)
+                    .append(" = new ").append(lensClass(f)).append("();\n");
+        }
+        src.append("\n    private ").append(holder).append("() {\n    }\n");
+
+        for (Field f : fields) {
+            src.append('\n');
+            src.append("    private static final class ").append(lensClass(f)).append(" extends ").append(baseType(target, f)).append(" {\n");
+            src.append("        @Override\n");
+            src.append("        public ").append(focusType(f)).append(" get(").append(target).append(" v) {\n");
+            src.append("            return ").append(f.read).append(";\n");
+            src.append("        }\n\n");
+            src.append("        @Override\n");
+            src.append("        public ").append(target).append(" set(").append(target).append(" v, ").append(focusType(f)).append(" r) {\n");
+            String unchanged = unchanged(f);
+            if (unchanged != null) {
+                src.append("            if (").append(unchanged).append(") {\n");
+                src.append("                return v;\n");
+                src.append("            }\n");
+            }
+            src.append("            return new ").append(target).append('(');
+            for (int i = 0; i < fields.size(); i++) {
+                Field each = fields.get(i);
+                src.append(i == 0 ? "" : ", ").append(each == f ? "r" : each.read);
+            }
+            src.append(");\n");
+            src.append("        }\n");
+            src.append("    }\n");
+        }
+        src.append("}\n");
+
+        String name = packageName.isEmpty() ? holder : packageName + "." + holder;
+        try {
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(name, type);
+            try (Writer w = file.openWriter()) {
+                w.write(src.toString());
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Couldn't write " + name + ": " + e.getMessage(), type);
+        }
+    }
+
+    /**
+     * AddressLenses for Address, and LensTest_AddressLenses for LensTest.Address.
+     */
+    private static String holderName(TypeElement type) {
+        StringBuilder name = new StringBuilder(type.getSimpleName()).append("Lenses");
+        for (Element e = type.getEnclosingElement(); e instanceof TypeElement; e = e.getEnclosingElement()) {
+            name.insert(0, e.getSimpleName() + "_");
+        }
+        return name.toString();
+    }
+
+    private static String lensClass(Field f) {
+        return Character.toUpperCase(f.name.charAt(0)) + f.name.substring(1) + "Lens";
+    }
+
+    private static String primitiveLens(Field f) {
+        switch (f.type.getKind()) {
+            case INT:
+                return "Int";
+            case LONG:
+                return "Long";
+            case DOUBLE:
+                return "Double";
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * The test for r already being v's target, so that set can return v itself, or null where that's not cheap.
+     */
+    private static String unchanged(Field f) {
+        if (f.type.getKind() == TypeKind.DOUBLE) {
+            return "Double.doubleToRawLongBits(" + f.read + ") == Double.doubleToRawLongBits(r)";
+        }
+        return primitiveLens(f) != null || !f.type.getKind().isPrimitive() ? f.read + " == r" : null;
+    }
+
+    private String focusType(Field f) {
+        if (primitiveLens(f) != null) {
+            return f.type.toString();
+        }
+        if (f.type.getKind().isPrimitive()) {
+            return processingEnv.getTypeUtils().boxedClass((PrimitiveType) f.type).getQualifiedName().toString();
+        }
+        return f.type.toString();
+    }
+
+    private String lensType(String target, Field f) {
+        String primitive = primitiveLens(f);
+        return primitive != null
+                ? "org.bruceeddy." + primitive + "Lens<" + target + ">"
+                : "org.bruceeddy.Lens<" + target + ", " + focusType(f) + ">";
+    }
+
+    private String baseType(String target, Field f) {
+        String primitive = primitiveLens(f);
+        return primitive != null
+                ? "org.bruceeddy.Abstract" + primitive + "Lens<" + target + ">"
+                : "org.bruceeddy.AbstractLens<" + target + ", " + focusType(f) + ">";
+    }
+}
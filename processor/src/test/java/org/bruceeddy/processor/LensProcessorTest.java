@@ -0,0 +1,155 @@
+package org.bruceeddy.processor;
+
+import org.bruceeddy.GenerateLenses;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class LensProcessorTest {
+
+    private static final String ADDRESS =
+            "package sample;\n" +
+            "@org.bruceeddy.GenerateLenses\n" +
+            "public class Address {\n" +
+            "    final int streetNumber;\n" +
+            "    final String streetName;\n" +
+            "    public Address(int streetNumber, String streetName) {\n" +
+            "        this.streetNumber = streetNumber;\n" +
+            "        this.streetName = streetName;\n" +
+            "    }\n" +
+            "}\n";
+
+    private static final String PERSON =
+            "package sample;\n" +
+            "@org.bruceeddy.GenerateLenses\n" +
+            "public class Person {\n" +
+            "    final String name;\n" +
+            "    final long age;\n" +
+            "    final Address address;\n" +
+            "    public Person(String name, long age, Address address) {\n" +
+            "        this.name = name;\n" +
+            "        this.age = age;\n" +
+            "        this.address = address;\n" +
+            "    }\n" +
+            "}\n";
+
+    private static final String USAGE =
+            "package sample;\n" +
+            "public class Usage {\n" +
+            "    static Person aPerson() {\n" +
+            "        return new Person(\"Joyo\", 99, new Address(10, \"The High Street\"));\n" +
+            "    }\n" +
+            "    public static int streetNumber() {\n" +
+            "        return AddressLenses.streetNumber.compose(PersonLenses.address).get(aPerson());\n" +
+            "    }\n" +
+            "    public static String movedStreetName() {\n" +
+            "        return AddressLenses.streetName.compose(PersonLenses.address).set(aPerson(), \"Low Road\").address.streetName;\n" +
+            "    }\n" +
+            "    public static long olderAge() {\n" +
+            "        return PersonLenses.age.modify(aPerson(), a -> a + 1).age;\n" +
+            "    }\n" +
+            "    public static boolean setToSameKeepsSource() {\n" +
+            "        Person p = aPerson();\n" +
+            "        return PersonLenses.address.set(p, p.address) == p && PersonLenses.age.set(p, 99) == p;\n" +
+            "    }\n" +
+            "    public static String unchangedName() {\n" +
+            "        return PersonLenses.age.modify(aPerson(), a -> a + 1).name;\n" +
+            "    }\n" +
+            "}\n";
+
+    private File out;
+
+    @Before
+    public void createOutputDirectory() throws Exception {
+        out = Files.createTempDirectory("lens-processor").toFile();
+    }
+
+    @Test
+    public void generatedLensesShouldGetSetAndModify() throws Exception {
+        DiagnosticCollector<JavaFileObject> diagnostics = compile(
+                source("sample.Address", ADDRESS), source("sample.Person", PERSON), source("sample.Usage", USAGE));
+        assertThat(errors(diagnostics), is(""));
+
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{out.toURI().toURL()}, getClass().getClassLoader())) {
+            Class<?> usage = loader.loadClass("sample.Usage");
+            assertThat(usage.getMethod("streetNumber").invoke(null), is(10));
+            assertThat(usage.getMethod("movedStreetName").invoke(null), is("Low Road"));
+            assertThat(usage.getMethod("olderAge").invoke(null), is(100L));
+            assertThat(usage.getMethod("unchangedName").invoke(null), is("Joyo"));
+            assertThat(usage.getMethod("setToSameKeepsSource").invoke(null), is(true));
+        }
+    }
+
+    @Test
+    public void privateFieldsShouldBeReported() throws Exception {
+        String hidden =
+                "package sample;\n" +
+                "@org.bruceeddy.GenerateLenses\n" +
+                "public class Hidden {\n" +
+                "    private final int secret;\n" +
+                "    public Hidden(int secret) { this.secret = secret; }\n" +
+                "}\n";
+
+        assertThat(errors(compile(source("sample.Hidden", hidden))), containsString("can't read private field secret"));
+    }
+
+    @Test
+    public void missingConstructorShouldBeReported() throws Exception {
+        String partial =
+                "package sample;\n" +
+                "@org.bruceeddy.GenerateLenses\n" +
+                "public class Partial {\n" +
+                "    final int a;\n" +
+                "    final int b;\n" +
+                "    public Partial(int a) { this.a = a; this.b = 0; }\n" +
+                "}\n";
+
+        assertThat(errors(compile(source("sample.Partial", partial))), containsString("needs a non-private constructor"));
+    }
+
+    private DiagnosticCollector<JavaFileObject> compile(JavaFileObject... sources) throws Exception {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        String classpath = new File(GenerateLenses.class.getProtectionDomain().getCodeSource().getLocation().toURI()).getPath();
+        List<String> options = Arrays.asList("-d", out.getPath(), "-s", out.getPath(), "-classpath", classpath);
+
+        JavaCompiler.CompilationTask task = compiler.getTask(null, null, diagnostics, options, null, Arrays.asList(sources));
+        task.setProcessors(Arrays.asList(new LensProcessor()));
+        task.call();
+        return diagnostics;
+    }
+
+    private static String errors(DiagnosticCollector<JavaFileObject> diagnostics) {
+        return diagnostics.getDiagnostics().stream()
+                .filter(d -> d.getKind() == Diagnostic.Kind.ERROR)
+                .map(d -> d.getMessage(null))
+                .collect(Collectors.joining("\n"));
+    }
+
+    private static JavaFileObject source(String name, String code) {
+        return new SimpleJavaFileObject(URI.create("string:///" + name.replace('.', '/') + ".java"), JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return code;
+            }
+        };
+    }
+}
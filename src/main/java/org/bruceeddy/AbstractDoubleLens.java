@@ -0,0 +1,27 @@
+package org.bruceeddy;
+
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * As AbstractIntLens, for doubles.  modify compares targets bit for bit, so that a NaN left as it is counts as
+ * unchanged.
+ */
+public abstract class AbstractDoubleLens<V> implements DoubleLens<V> {
+
+    @Override
+    public V modify(V v, DoubleUnaryOperator f) {
+        double r = get(v);
+        double m = f.applyAsDouble(r);
+        return Double.doubleToRawLongBits(m) == Double.doubleToRawLongBits(r) ? v : set(v, m);
+    }
+
+    @Override
+    public Lens<V, Double> boxed() {
+        return Lenses.gen(this::get, (r, v) -> set(v, r));
+    }
+
+    @Override
+    public <U> DoubleLens<U> compose(Lens<U, V> comp) {
+        return DoubleLenses.compose(comp, this);
+    }
+}
@@ -0,0 +1,26 @@
+package org.bruceeddy;
+
+import java.util.function.IntUnaryOperator;
+
+/**
+ * An IntLens defined by nothing more than get and set.
+ */
+public abstract class AbstractIntLens<V> implements IntLens<V> {
+
+    @Override
+    public V modify(V v, IntUnaryOperator f) {
+        int r = get(v);
+        int m = f.applyAsInt(r);
+        return m == r ? v : set(v, m);
+    }
+
+    @Override
+    public Lens<V, Integer> boxed() {
+        return Lenses.gen(this::get, (r, v) -> set(v, r));
+    }
+
+    @Override
+    public <U> IntLens<U> compose(Lens<U, V> comp) {
+        return IntLenses.compose(comp, this);
+    }
+}
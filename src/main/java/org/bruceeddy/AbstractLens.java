@@ -0,0 +1,33 @@
+package org.bruceeddy;
+
+import java.util.function.UnaryOperator;
+
+/**
+ * A Lens defined by nothing more than get and set.  Subclass this to write a lens as its own class - for instance
+ * in generated code - rather than as a pair of lambdas passed to Lenses.gen.
+ * <p>
+ * set should return v itself when r is already v's target, as Lenses.gen does, so that composed lenses can keep
+ * unchanged sources rather than rebuild them.
+ */
+public abstract class AbstractLens<V, R> implements Lens<V, R> {
+
+    @Override
+    public V modify(V v, UnaryOperator<R> f) {
+        R r = get(v);
+        R m = f.apply(r);
+        return m == r ? v : setChanged(v, m);
+    }
+
+    /**
+     * Sets a target which the caller has already found to differ from v's: set, less any check that it's the same.
+     * Lenses.setChanged uses it where a rebuild has the old target in hand.
+     */
+    V setChanged(V v, R r) {
+        return set(v, r);
+    }
+
+    @Override
+    public <U> Lens<U, R> compose(Lens<U, V> comp) {
+        return Lenses.compose(comp, this);
+    }
+}
@@ -0,0 +1,26 @@
+package org.bruceeddy;
+
+import java.util.function.LongUnaryOperator;
+
+/**
+ * As AbstractIntLens, for longs.
+ */
+public abstract class AbstractLongLens<V> implements LongLens<V> {
+
+    @Override
+    public V modify(V v, LongUnaryOperator f) {
+        long r = get(v);
+        long m = f.applyAsLong(r);
+        return m == r ? v : set(v, m);
+    }
+
+    @Override
+    public Lens<V, Long> boxed() {
+        return Lenses.gen(this::get, (r, v) -> set(v, r));
+    }
+
+    @Override
+    public <U> LongLens<U> compose(Lens<U, V> comp) {
+        return LongLenses.compose(comp, this);
+    }
+}
@@ -0,0 +1,77 @@
+package org.bruceeddy;
+
+import java.util.function.UnaryOperator;
+
+/**
+ * A Prism defined by nothing more than getOrNull and reverseGet.
+ */
+public abstract class AbstractPrism<S, A> implements Prism<S, A> {
+
+    @Override
+    public S set(S s, A a) {
+        return getOrNull(s) == null ? s : reverseGet(a);
+    }
+
+    @Override
+    public S modify(S s, UnaryOperator<A> f) {
+        A a = getOrNull(s);
+        if (a == null) {
+            return s;
+        }
+        A m = f.apply(a);
+        return m == a ? s : reverseGet(m);
+    }
+
+    @Override
+    public <B> Prism<S, B> andThen(Prism<A, B> prism) {
+        Prism<S, A> outer = this;
+        return new AbstractPrism<S, B>() {
+            @Override
+            public B getOrNull(S s) {
+                A a = outer.getOrNull(s);
+                return a == null ? null : prism.getOrNull(a);
+            }
+
+            @Override
+            public S reverseGet(B b) {
+                return outer.reverseGet(prism.reverseGet(b));
+            }
+        };
+    }
+
+    @Override
+    public <B> Shutter<S, B> andThen(Lens<A, B> lens) {
+        return asShutter().andThen(lens);
+    }
+
+    @Override
+    public <B> Shutter<S, B> andThen(Shutter<A, B> shutter) {
+        return asShutter().andThen(shutter);
+    }
+
+    @Override
+    public <U> Shutter<U, A> compose(Lens<U, S> lens) {
+        return asShutter().compose(lens);
+    }
+
+    @Override
+    public Shutter<S, A> asShutter() {
+        Prism<S, A> prism = this;
+        return new AbstractShutter<S, A>() {
+            @Override
+            public A getOrNull(S s) {
+                return prism.getOrNull(s);
+            }
+
+            @Override
+            public S setOptional(S s, A a) {
+                return prism.set(s, a);
+            }
+
+            @Override
+            public S modifyOrSame(S s, UnaryOperator<A> f) {
+                return prism.modify(s, f);
+            }
+        };
+    }
+}
@@ -0,0 +1,122 @@
+package org.bruceeddy;
+
+import java.util.function.UnaryOperator;
+
+/**
+ * A Shutter defined by nothing more than getOrNull and setOptional.  Composites built from it pass nulls, not
+ * Optionals, between their parts, and keep any part whose target comes back unchanged.
+ */
+public abstract class AbstractShutter<V, R> implements Shutter<V, R> {
+
+    @Override
+    public V modifyOrSame(V v, UnaryOperator<R> f) {
+        R r = getOrNull(v);
+        if (r == null) {
+            return v;
+        }
+        R m = f.apply(r);
+        return m == r ? v : setOptional(v, m);
+    }
+
+    @Override
+    public <U> Shutter<U, R> compose(Lens<U, V> lens) {
+        return new Composed<>(lens, this);
+    }
+
+    @Override
+    public <B> Shutter<V, B> andThen(Lens<R, B> lens) {
+        Shutter<V, R> outer = this;
+        return new AbstractShutter<V, B>() {
+            @Override
+            public B getOrNull(V v) {
+                R r = outer.getOrNull(v);
+                return r == null ? null : lens.get(r);
+            }
+
+            @Override
+            public V setOptional(V v, B b) {
+                R r = outer.getOrNull(v);
+                return r == null ? v : rebuild(v, r, lens.set(r, b));
+            }
+
+            @Override
+            public V modifyOrSame(V v, UnaryOperator<B> f) {
+                R r = outer.getOrNull(v);
+                return r == null ? v : rebuild(v, r, lens.modify(r, f));
+            }
+
+            private V rebuild(V v, R r, R modified) {
+                return modified == r ? v : outer.setOptional(v, modified);
+            }
+        };
+    }
+
+    @Override
+    public <B> Shutter<V, B> andThen(Shutter<R, B> shutter) {
+        Shutter<V, R> outer = this;
+        return new AbstractShutter<V, B>() {
+            @Override
+            public B getOrNull(V v) {
+                R r = outer.getOrNull(v);
+                return r == null ? null : shutter.getOrNull(r);
+            }
+
+            @Override
+            public V setOptional(V v, B b) {
+                R r = outer.getOrNull(v);
+                return r == null ? v : rebuild(v, r, shutter.setOptional(r, b));
+            }
+
+            @Override
+            public V modifyOrSame(V v, UnaryOperator<B> f) {
+                R r = outer.getOrNull(v);
+                return r == null ? v : rebuild(v, r, shutter.modifyOrSame(r, f));
+            }
+
+            private V rebuild(V v, R r, R modified) {
+                return modified == r ? v : outer.setOptional(v, modified);
+            }
+        };
+    }
+
+    /**
+     * A shutter composed onto a lens, which keeps the two apart so that StripedLensRef can find the lens.
+     * Composing it onto a further lens composes the lenses, so it's always one lens and one shutter.
+     */
+    static final class Composed<U, V, R> extends AbstractShutter<U, R> {
+
+        final Lens<U, V> lens;
+        final Shutter<V, R> inner;
+
+        Composed(Lens<U, V> lens, Shutter<V, R> inner) {
+            this.lens = lens;
+            this.inner = inner;
+        }
+
+        @Override
+        public R getOrNull(U u) {
+            return inner.getOrNull(lens.get(u));
+        }
+
+        @Override
+        public U setOptional(U u, R r) {
+            V v = lens.get(u);
+            return rebuild(u, v, inner.setOptional(v, r));
+        }
+
+        @Override
+        public U modifyOrSame(U u, UnaryOperator<R> f) {
+            V v = lens.get(u);
+            return rebuild(u, v, inner.modifyOrSame(v, f));
+        }
+
+        private U rebuild(U u, V v, V modified) {
+            return modified == v ? u : Lenses.setChanged(lens, u, modified);
+        }
+
+        @Override
+        public <T> Shutter<T, R> compose(Lens<T, U> outer) {
+            return new Composed<>(lens.compose(outer), inner);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package org.bruceeddy;
+
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * An applicative functor, as one instance working directly on the container values, rather than as a wrapper
+ * around each value the way Functor is.  F is the raw container type - Optional, List or CompletableFuture, say -
+ * standing for a container of any element type.  There's nothing to unwrap: an F is the Optional, List, etc.
+ * itself.  See Applicatives for instances.
+ */
+public interface Applicative<F> {
+
+    <A> F pure(A a);
+
+    <A, B> F map(F fa, Function<? super A, ? extends B> f);
+
+    <A, B, C> F map2(F fa, F fb, BiFunction<? super A, ? super B, ? extends C> f);
+
+    /**
+     * Maps the targets in fr to v with each set by lens, as Lens.modifyF's one map.  Identity and Const override
+     * it to set directly and to return fr, so neither allocates a setting function.
+     */
+    default <V, R> F mapSet(F fr, Lens<V, R> lens, V v) {
+        return map(fr, (R r) -> lens.set(v, r));
+    }
+}
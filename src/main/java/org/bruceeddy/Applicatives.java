@@ -0,0 +1,150 @@
+package org.bruceeddy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+
+/**
+ * Singleton Applicative instances, plus Const for any monoid.  Each works on its container directly, so there are
+ * no per-map wrapper objects to allocate and nothing to unwrap afterwards.
+ */
+@SuppressWarnings({"unchecked", "rawtypes"})
+public class Applicatives {
+
+    private static final Applicative<Optional> OPTIONAL = new Applicative<Optional>() {
+        @Override
+        public <A> Optional pure(A a) {
+            return Optional.of(a);
+        }
+
+        @Override
+        public <A, B> Optional map(Optional fa, Function<? super A, ? extends B> f) {
+            return ((Optional<A>) fa).map(f);
+        }
+
+        @Override
+        public <A, B, C> Optional map2(Optional fa, Optional fb, BiFunction<? super A, ? super B, ? extends C> f) {
+            return fa.isPresent() && fb.isPresent()
+                    ? Optional.ofNullable(f.apply((A) fa.get(), (B) fb.get()))
+                    : Optional.empty();
+        }
+    };
+
+    private static final Applicative<List> LIST = new Applicative<List>() {
+        @Override
+        public <A> List pure(A a) {
+            return Collections.singletonList(a);
+        }
+
+        @Override
+        public <A, B> List map(List fa, Function<? super A, ? extends B> f) {
+            List<B> mapped = new ArrayList<>(fa.size());
+            for (Object a : fa) {
+                mapped.add(f.apply((A) a));
+            }
+            return mapped;
+        }
+
+        @Override
+        public <A, B, C> List map2(List fa, List fb, BiFunction<? super A, ? super B, ? extends C> f) {
+            List<C> combined = new ArrayList<>(fa.size() * fb.size());
+            for (Object a : fa) {
+                for (Object b : fb) {
+                    combined.add(f.apply((A) a, (B) b));
+                }
+            }
+            return combined;
+        }
+    };
+
+    private static final Applicative<CompletableFuture> FUTURE = new Applicative<CompletableFuture>() {
+        @Override
+        public <A> CompletableFuture pure(A a) {
+            return CompletableFuture.completedFuture(a);
+        }
+
+        @Override
+        public <A, B> CompletableFuture map(CompletableFuture fa, Function<? super A, ? extends B> f) {
+            return ((CompletableFuture<A>) fa).thenApply(f);
+        }
+
+        @Override
+        public <A, B, C> CompletableFuture map2(CompletableFuture fa, CompletableFuture fb, BiFunction<? super A, ? super B, ? extends C> f) {
+            return ((CompletableFuture<A>) fa).thenCombine((CompletableFuture<B>) fb, f);
+        }
+    };
+
+    private static final Applicative<Object> IDENTITY = new Applicative<Object>() {
+        @Override
+        public <A> Object pure(A a) {
+            return a;
+        }
+
+        @Override
+        public <A, B> Object map(Object fa, Function<? super A, ? extends B> f) {
+            return f.apply((A) fa);
+        }
+
+        @Override
+        public <A, B, C> Object map2(Object fa, Object fb, BiFunction<? super A, ? super B, ? extends C> f) {
+            return f.apply((A) fa, (B) fb);
+        }
+
+        @Override
+        public <V, R> Object mapSet(Object fr, Lens<V, R> lens, V v) {
+            return lens.set(v, (R) fr);
+        }
+    };
+
+    public static Applicative<Optional> optional() {
+        return OPTIONAL;
+    }
+
+    public static Applicative<List> list() {
+        return LIST;
+    }
+
+    public static Applicative<CompletableFuture> future() {
+        return FUTURE;
+    }
+
+    /**
+     * Identity: an F is just the value, so modifyF through this is plain modify.
+     */
+    public static Applicative<Object> identity() {
+        return IDENTITY;
+    }
+
+    /**
+     * Const: an F is an accumulated M, which map leaves untouched, so modifyF through this is a get (or, for a
+     * traversal, a foldMap) of whatever f returns.  zero and combine must be a monoid.
+     */
+    public static <M> Applicative<M> constant(M zero, BinaryOperator<M> combine) {
+        return new Applicative<M>() {
+            @Override
+            public <A> M pure(A a) {
+                return zero;
+            }
+
+            @Override
+            public <A, B> M map(M fa, Function<? super A, ? extends B> f) {
+                return fa;
+            }
+
+            @Override
+            public <A, B, C> M map2(M fa, M fb, BiFunction<? super A, ? super B, ? extends C> f) {
+                return combine.apply(fa, fb);
+            }
+
+            @Override
+            public <V, R> M mapSet(M fr, Lens<V, R> lens, V v) {
+                return fr;
+            }
+        };
+    }
+}
@@ -0,0 +1,76 @@
+package org.bruceeddy;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lens which remembers the targets it has recently got, keyed on the identity of the source.  Sources are
+ * immutable, so a remembered target can't go stale: set makes a new source, which is simply a miss.
+ * <p>
+ * The cache is a fixed size table indexed by identity hash, so a source evicts whichever one had its slot.  It holds
+ * its sources weakly, so it never keeps a snapshot alive, and reads and writes need no locks.
+ */
+public final class CachedLens<V, R> extends AbstractLens<V, R> {
+
+    private final Lens<V, R> lens;
+    private final AtomicReferenceArray<Entry> table;
+    private final int mask;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    CachedLens(Lens<V, R> lens, int maximumSize) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("maximumSize must be positive, not " + maximumSize);
+        }
+        int size = Integer.highestOneBit(Math.min(maximumSize, 1 << 30));
+        this.lens = lens;
+        this.table = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public R get(V v) {
+        int i = System.identityHashCode(v) & mask;
+        Entry e = table.get(i);
+        if (e != null && e.get() == v) {
+            hits.increment();
+            return (R) e.target;
+        }
+        misses.increment();
+        R r = lens.get(v);
+        table.set(i, new Entry(v, r));
+        return r;
+    }
+
+    /**
+     * Compares r against the cached target, so the underlying lens's getter isn't run again to check it.
+     */
+    @Override
+    public V set(V v, R r) {
+        return get(v) == r ? v : Lenses.setChanged(lens, v, r);
+    }
+
+    @Override
+    V setChanged(V v, R r) {
+        return Lenses.setChanged(lens, v, r);
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    private static final class Entry extends WeakReference<Object> {
+        final Object target;
+
+        Entry(Object source, Object target) {
+            super(source);
+            this.target = target;
+        }
+    }
+}
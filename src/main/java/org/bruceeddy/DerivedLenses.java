@@ -0,0 +1,275 @@
+package org.bruceeddy;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaConversionException;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Builds lenses at runtime for classes we can't annotate, e.g. third party DTOs and records.
+ * <p>
+ * The getter is a LambdaMetafactory Function over a public accessor method (such as a record's) where there is one,
+ * and over a MethodHandle onto the field otherwise.  The setter is a LambdaMetafactory BiFunction over a single
+ * MethodHandle which calls the all-fields constructor with the other fields read from the source.  Reflection is
+ * only used once, to find these, and the result is cached per class and field.
+ */
+class DerivedLenses {
+
+    private static final ClassValue<ConcurrentMap<String, Lens<?, ?>>> CACHE = new ClassValue<ConcurrentMap<String, Lens<?, ?>>>() {
+        @Override
+        protected ConcurrentMap<String, Lens<?, ?>> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    @SuppressWarnings("unchecked")
+    static <V, R> Lens<V, R> derive(Class<V> type, String field) {
+        return (Lens<V, R>) CACHE.get(type).computeIfAbsent(field, f -> build(type, f));
+    }
+
+    private static <V, R> Lens<V, R> build(Class<V> type, String name) {
+        List<Field> fields = instanceFields(type);
+        int target = -1;
+        for (int i = 0; i < fields.size(); i++) {
+            if (fields.get(i).getName().equals(name)) {
+                target = i;
+            }
+        }
+        if (target < 0) {
+            throw new IllegalArgumentException("No instance field " + name + " in " + type.getName());
+        }
+
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        try {
+            MethodHandle[] getters = new MethodHandle[fields.size()];
+            for (int i = 0; i < getters.length; i++) {
+                Field f = fields.get(i);
+                accessible(f);
+                getters[i] = lookup.unreflectGetter(f);
+            }
+            Constructor<V> constructor = allFieldsConstructor(type, fields);
+            int[] fieldOf = fieldsOfParameters(type, constructor, fields);
+            accessible(constructor);
+
+            // (p0, .., pn) -> V  becomes  (V, .., R, .., V) -> V  becomes  (R, V) -> V
+            MethodHandle set = lookup.unreflectConstructor(constructor);
+            int[] reorder = new int[fieldOf.length];
+            for (int j = 0; j < fieldOf.length; j++) {
+                if (fieldOf[j] != target) {
+                    set = MethodHandles.filterArguments(set, j, getters[fieldOf[j]]);
+                }
+                reorder[j] = fieldOf[j] == target ? 0 : 1;
+            }
+            set = MethodHandles.permuteArguments(set, MethodType.methodType(type, fields.get(target).getType(), type), reorder);
+
+            Function<V, R> getter = accessor(lookup, type, fields.get(target));
+            if (getter == null) {
+                getter = spin(lookup, Function.class, "getVia", getters[target].asType(MethodType.genericMethodType(1)));
+            }
+            BiFunction<R, V, V> setter = spin(lookup, BiFunction.class, "setVia", set.asType(MethodType.genericMethodType(2)));
+            return Lenses.gen(getter, setter);
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("Can't access " + type.getName() + "." + name, e);
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException rather than Java 9's InaccessibleObjectException, if o's module isn't open to
+     *                                  us
+     */
+    private static void accessible(AccessibleObject o) {
+        try {
+            o.setAccessible(true);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Can't access " + o, e);
+        }
+    }
+
+    private static List<Field> instanceFields(Class<?> type) {
+        List<Field> fields = new ArrayList<>();
+        for (Field f : type.getDeclaredFields()) {
+            if (!Modifier.isStatic(f.getModifiers())) {
+                fields.add(f);
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * The constructor taking one parameter per instance field, in any order.
+     */
+    @SuppressWarnings("unchecked")
+    private static <V> Constructor<V> allFieldsConstructor(Class<V> type, List<Field> fields) {
+        Constructor<V> found = null;
+        for (Constructor<?> c : type.getDeclaredConstructors()) {
+            if (c.getParameterCount() == fields.size() && takesEveryFieldType(c, fields)) {
+                if (found != null) {
+                    throw new IllegalArgumentException(type.getName() + " has more than one constructor taking every instance field");
+                }
+                found = (Constructor<V>) c;
+            }
+        }
+        if (found == null) {
+            throw new IllegalArgumentException(type.getName() + " has no constructor taking every instance field");
+        }
+        return found;
+    }
+
+    private static boolean takesEveryFieldType(Constructor<?> c, List<Field> fields) {
+        List<Class<?>> types = new ArrayList<>();
+        for (Field f : fields) {
+            types.add(f.getType());
+        }
+        for (Class<?> p : c.getParameterTypes()) {
+            if (!types.remove(p)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * For each parameter of constructor, the index in fields of the field it sets.  Parameters are matched by name
+     * where names are known - for records, or classes compiled with -parameters - and otherwise by type, which
+     * needs the fields' types to be distinct.  The order fields are declared in isn't used, as reflection doesn't
+     * promise to keep it.
+     */
+    private static int[] fieldsOfParameters(Class<?> type, Constructor<?> constructor, List<Field> fields) {
+        String[] names = parameterNames(type, constructor);
+        Class<?>[] types = constructor.getParameterTypes();
+        int[] fieldOf = new int[types.length];
+        for (int j = 0; j < types.length; j++) {
+            int match = -1;
+            for (int i = 0; i < fields.size(); i++) {
+                Field f = fields.get(i);
+                boolean matches = f.getType() == types[j] && (names == null || f.getName().equals(names[j]));
+                if (matches) {
+                    if (match >= 0) {
+                        throw new IllegalArgumentException("Can't tell which of " + type.getName() + "'s " + types[j].getName()
+                                + " fields its constructor sets where; compile it with -parameters");
+                    }
+                    match = i;
+                }
+            }
+            if (match < 0) {
+                throw new IllegalArgumentException(type.getName() + "'s constructor parameter " + (names == null ? j : names[j])
+                        + " doesn't match a field");
+            }
+            fieldOf[j] = match;
+        }
+        return fieldOf;
+    }
+
+    /**
+     * The names of constructor's parameters, or null if they weren't compiled in.  Records always have them, as
+     * their components, but are looked up reflectively since they postdate Java 8.
+     */
+    private static String[] parameterNames(Class<?> type, Constructor<?> constructor) {
+        try {
+            Object[] components = (Object[]) Class.class.getMethod("getRecordComponents").invoke(type);
+            if (components != null) {
+                String[] names = new String[components.length];
+                for (int i = 0; i < names.length; i++) {
+                    names[i] = (String) components[i].getClass().getMethod("getName").invoke(components[i]);
+                }
+                return names;
+            }
+        } catch (ReflectiveOperationException e) {
+            // before Java 16
+        }
+        Parameter[] parameters = constructor.getParameters();
+        if (parameters.length == 0 || !parameters[0].isNamePresent()) {
+            return null;
+        }
+        String[] names = new String[parameters.length];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = parameters[i].getName();
+        }
+        return names;
+    }
+
+    /**
+     * An instance of samType, spun by LambdaMetafactory, calling the static method via here with handle bound as
+     * its first argument.  The spun class holds handle in a final field the JIT trusts as a constant, where a
+     * plain class's final field isn't, so calls through a lens held in a static final inline through the handle.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> T spin(MethodHandles.Lookup lookup, Class<?> samType, String via, MethodHandle handle) {
+        MethodType erased = handle.type();
+        try {
+            MethodHandle impl = lookup.findStatic(DerivedLenses.class, via, erased.insertParameterTypes(0, MethodHandle.class));
+            CallSite site = LambdaMetafactory.metafactory(lookup, "apply", MethodType.methodType(samType, MethodHandle.class),
+                    erased, impl, erased);
+            return (T) site.getTarget().invoke(handle);
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    private static Object getVia(MethodHandle getter, Object v) {
+        try {
+            return getter.invokeExact(v);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    private static Object setVia(MethodHandle setter, Object r, Object v) {
+        try {
+            return setter.invokeExact(r, v);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    /**
+     * A Function calling the public accessor method named after the field, spun by LambdaMetafactory, or null if
+     * there is no such method or it can't be linked from here.
+     */
+    @SuppressWarnings("unchecked")
+    private static <V, R> Function<V, R> accessor(MethodHandles.Lookup lookup, Class<V> type, Field field) {
+        try {
+            Method m = type.getMethod(field.getName());
+            if (m.getReturnType() != field.getType() || !Modifier.isPublic(type.getModifiers()) || !visibleFromHere(type)) {
+                return null;
+            }
+            MethodHandle impl = lookup.unreflect(m);
+            CallSite site = LambdaMetafactory.metafactory(lookup, "apply", MethodType.methodType(Function.class),
+                    MethodType.genericMethodType(1), impl, impl.type().wrap());
+            return (Function<V, R>) site.getTarget().invoke();
+        } catch (NoSuchMethodException | IllegalAccessException | LambdaConversionException e) {
+            return null;
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    /**
+     * The spun class links against type from this class's loader, so it must be able to see it.
+     */
+    private static boolean visibleFromHere(Class<?> type) {
+        try {
+            return Class.forName(type.getName(), false, DerivedLenses.class.getClassLoader()) == type;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+}
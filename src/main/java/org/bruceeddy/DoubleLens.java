@@ -0,0 +1,36 @@
+package org.bruceeddy;
+
+import java.util.function.Function;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * As IntLens, for doubles.
+ */
+public interface DoubleLens<V> {
+
+    @FunctionalInterface
+    interface Setter<V> {
+        V apply(double r, V v);
+    }
+
+    double get(V v);
+
+    V set(V v, double r);
+
+    V modify(V v, DoubleUnaryOperator f);
+
+    default Function<V, V> set(double r) {
+        return v -> set(v, r);
+    }
+
+    default Function<V, V> modify(DoubleUnaryOperator f) {
+        return v -> modify(v, f);
+    }
+
+    /**
+     * This lens as an ordinary, boxing, Lens.
+     */
+    Lens<V, Double> boxed();
+
+    <U> DoubleLens<U> compose(Lens<U, V> comp);
+}
@@ -0,0 +1,70 @@
+package org.bruceeddy;
+
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.ToDoubleFunction;
+
+public class DoubleLenses {
+
+    public static <V> DoubleLens<V> gen(ToDoubleFunction<V> f, DoubleLens.Setter<V> g) {
+        class DoubleLensy extends AbstractDoubleLens<V> {
+            public double get(V v) {
+                return f.applyAsDouble(v);
+            }
+
+            public V set(V v, double r) {
+                return Double.doubleToRawLongBits(f.applyAsDouble(v)) == Double.doubleToRawLongBits(r) ? v : g.apply(r, v);
+            }
+        }
+
+        return new DoubleLensy();
+    }
+
+    static <U, V> DoubleLens<U> compose(Lens<U, V> outer, DoubleLens<V> inner) {
+        return new Composed<>(outer, inner);
+    }
+
+    /**
+     * As IntLenses.Composed.
+     */
+    private static class Composed<U, V> implements DoubleLens<U> {
+
+        private final Lens<U, V> outer;
+        private final DoubleLens<V> inner;
+
+        Composed(Lens<U, V> outer, DoubleLens<V> inner) {
+            this.outer = outer;
+            this.inner = inner;
+        }
+
+        @Override
+        public double get(U u) {
+            return inner.get(outer.get(u));
+        }
+
+        @Override
+        public U set(U u, double r) {
+            V v = outer.get(u);
+            return rebuild(u, v, inner.set(v, r));
+        }
+
+        @Override
+        public U modify(U u, DoubleUnaryOperator f) {
+            V v = outer.get(u);
+            return rebuild(u, v, inner.modify(v, f));
+        }
+
+        private U rebuild(U u, V v, V modified) {
+            return modified == v ? u : Lenses.setChanged(outer, u, modified);
+        }
+
+        @Override
+        public Lens<U, Double> boxed() {
+            return inner.boxed().compose(outer);
+        }
+
+        @Override
+        public <U1> DoubleLens<U1> compose(Lens<U1, U> comp) {
+            return new Composed<>(outer.compose(comp), inner);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package org.bruceeddy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+/**
+ * A batch of updates to one root, applied together by commit.  Consecutive updates through composed lenses which
+ * share a prefix of their paths share the walk down it, so each ancestor on the prefix is rebuilt once rather than
+ * once per update.  Updates still apply as if one after another, in the order given.  Not thread safe.
+ */
+public final class Edit<V> {
+
+    private final V root;
+    private final List<Update<?>> updates = new ArrayList<>();
+
+    Edit(V root) {
+        this.root = root;
+    }
+
+    public <R> Edit<V> set(Lens<V, R> lens, R r) {
+        updates.add(new Update<>(Lenses.path(lens), r, null));
+        return this;
+    }
+
+    public <R> Edit<V> modify(Lens<V, R> lens, UnaryOperator<R> f) {
+        updates.add(new Update<>(Lenses.path(lens), null, f));
+        return this;
+    }
+
+    /**
+     * The root with every update applied, or the root itself if none changed anything.
+     */
+    @SuppressWarnings("unchecked")
+    public V commit() {
+        return (V) apply(root, 0, 0, updates.size());
+    }
+
+    /**
+     * Applies updates from (inclusive) to to (exclusive), whose paths all agree to depth, to o.  A run of them
+     * going on through the same lens at depth is applied to that lens's target, which is set back once.
+     */
+    private Object apply(Object o, int depth, int from, int to) {
+        int i = from;
+        while (i < to) {
+            Update<?> u = updates.get(i);
+            if (u.path.length == depth + 1) {
+                o = u.applyLast(o);
+                i++;
+                continue;
+            }
+            Lens<Object, Object> l = u.path[depth];
+            int end = i + 1;
+            while (end < to && continuesThrough(updates.get(end), depth, l)) {
+                end++;
+            }
+            Object child = l.get(o);
+            Object modified = apply(child, depth + 1, i, end);
+            o = modified == child ? o : Lenses.setChanged(l, o, modified);
+            i = end;
+        }
+        return o;
+    }
+
+    private static boolean continuesThrough(Update<?> u, int depth, Lens<Object, Object> l) {
+        return u.path.length > depth + 1 && u.path[depth] == l;
+    }
+
+    private static final class Update<R> {
+        final Lens<Object, Object>[] path;
+        final R r;
+        final UnaryOperator<R> f;
+
+        Update(Lens<Object, Object>[] path, R r, UnaryOperator<R> f) {
+            this.path = path;
+            this.r = r;
+            this.f = f;
+        }
+
+        /**
+         * Sets or modifies o's target through the last lens on path, whose target is the R this update was
+         * made with.
+         */
+        @SuppressWarnings("unchecked")
+        Object applyLast(Object o) {
+            Lens<Object, R> last = (Lens<Object, R>) (Lens<Object, ?>) path[path.length - 1];
+            return f == null ? last.set(o, r) : last.modify(o, f);
+        }
+    }
+}
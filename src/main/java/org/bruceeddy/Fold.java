@@ -0,0 +1,81 @@
+package org.bruceeddy;
+
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * A read-only optic with any number of targets, for aggregating them.  Terminals loop over the source itself, with
+ * no intermediate collection, and the primitive sums don't box.
+ */
+public interface Fold<S, A> {
+
+    /**
+     * The targets of s, unconsumed.
+     */
+    Spliterator<A> spliterator(S s);
+
+    default void forEach(S s, Consumer<? super A> action) {
+        spliterator(s).forEachRemaining(action);
+    }
+
+    /**
+     * Maps each target with f and combines the results, in order, with combine - zero and combine being a monoid.
+     */
+    <M> M foldMap(S s, Function<? super A, ? extends M> f, M zero, BinaryOperator<M> combine);
+
+    int sumInt(S s, ToIntFunction<? super A> f);
+
+    long sumLong(S s, ToLongFunction<? super A> f);
+
+    double sumDouble(S s, ToDoubleFunction<? super A> f);
+
+    default int sumInt(S s, IntLens<A> lens) {
+        return sumInt(s, lens::get);
+    }
+
+    default long sumLong(S s, LongLens<A> lens) {
+        return sumLong(s, lens::get);
+    }
+
+    default double sumDouble(S s, DoubleLens<A> lens) {
+        return sumDouble(s, lens::get);
+    }
+
+    /**
+     * The least target, the first of them if several are least, or empty if there are no targets.
+     */
+    Optional<A> min(S s, Comparator<? super A> comparator);
+
+    /**
+     * The greatest target, the first of them if several are greatest, or empty if there are no targets.
+     */
+    Optional<A> max(S s, Comparator<? super A> comparator);
+
+    long count(S s);
+
+    /**
+     * This fold, splitting large sources across the common ForkJoinPool and combining the parts.
+     */
+    default Fold<S, A> parallel() {
+        return parallel(ForkJoinPool.commonPool());
+    }
+
+    Fold<S, A> parallel(ForkJoinPool pool);
+
+    <U> Fold<U, A> compose(Lens<U, S> lens);
+
+    <B> Fold<S, B> andThen(Lens<A, B> lens);
+
+    /**
+     * The targets of fold within each target of this one.
+     */
+    <B> Fold<S, B> andThen(Fold<A, B> fold);
+}
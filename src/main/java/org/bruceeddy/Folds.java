@@ -0,0 +1,321 @@
+package org.bruceeddy;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+public class Folds {
+
+    /**
+     * Every element of a list.
+     */
+    public static <A> Fold<List<A>, A> list() {
+        return new SpliteratorFold<>(List::spliterator, null);
+    }
+
+    /**
+     * Every element of an array.
+     */
+    public static <A> Fold<A[], A> array() {
+        return new SpliteratorFold<>(s -> Spliterators.spliterator(s, Spliterator.ORDERED), null);
+    }
+
+    /**
+     * The targets of traversal, read through its lazy stream.
+     */
+    public static <S, A> Fold<S, A> of(Traversal<S, A> traversal) {
+        return new SpliteratorFold<>(s -> traversal.stream(s).spliterator(), null);
+    }
+
+    /**
+     * Whatever targets source finds in s.
+     */
+    public static <S, A> Fold<S, A> gen(Function<S, ? extends Iterable<A>> source) {
+        return new SpliteratorFold<>(s -> source.apply(s).spliterator(), null);
+    }
+
+    private static class SpliteratorFold<S, A> implements Fold<S, A> {
+
+        private final Function<S, Spliterator<A>> source;
+
+        /**
+         * null when sequential.
+         */
+        private final ForkJoinPool pool;
+
+        SpliteratorFold(Function<S, Spliterator<A>> source, ForkJoinPool pool) {
+            this.source = source;
+            this.pool = pool;
+        }
+
+        @Override
+        public Spliterator<A> spliterator(S s) {
+            return source.apply(s);
+        }
+
+        @Override
+        public <M> M foldMap(S s, Function<? super A, ? extends M> f, M zero, BinaryOperator<M> combine) {
+            return run(s, t -> {
+                Object[] acc = {zero};
+                t.forEachRemaining(a -> acc[0] = combine.apply(Folds.<M>cast(acc[0]), f.apply(a)));
+                return Folds.<M>cast(acc[0]);
+            }, combine);
+        }
+
+        @Override
+        public int sumInt(S s, ToIntFunction<? super A> f) {
+            if (pool == null) {
+                return sumIntOf(source.apply(s), f);
+            }
+            return run(s, t -> sumIntOf(t, f), Integer::sum);
+        }
+
+        @Override
+        public long sumLong(S s, ToLongFunction<? super A> f) {
+            if (pool == null) {
+                return sumLongOf(source.apply(s), f);
+            }
+            return run(s, t -> sumLongOf(t, f), Long::sum);
+        }
+
+        @Override
+        public double sumDouble(S s, ToDoubleFunction<? super A> f) {
+            if (pool == null) {
+                return sumDoubleOf(source.apply(s), f);
+            }
+            return run(s, t -> sumDoubleOf(t, f), Double::sum);
+        }
+
+        @Override
+        public Optional<A> min(S s, Comparator<? super A> comparator) {
+            return best(s, (a, b) -> comparator.compare(b, a) < 0 ? b : a);
+        }
+
+        @Override
+        public Optional<A> max(S s, Comparator<? super A> comparator) {
+            return best(s, (a, b) -> comparator.compare(b, a) > 0 ? b : a);
+        }
+
+        /**
+         * Keeps whichever of each pair pick prefers, pick choosing its first argument on a tie.  NONE stands for
+         * no targets, so that null targets aren't confused with it.
+         */
+        private Optional<A> best(S s, BinaryOperator<A> pick) {
+            BinaryOperator<Object> combine = (a, b) -> a == NONE ? b : b == NONE ? a : pick.apply(cast(a), cast(b));
+            Object best = run(s, t -> {
+                Object[] acc = {NONE};
+                t.forEachRemaining(a -> acc[0] = acc[0] == NONE ? a : pick.apply(cast(acc[0]), a));
+                return acc[0];
+            }, combine);
+            return best == NONE ? Optional.empty() : Optional.ofNullable(cast(best));
+        }
+
+        @Override
+        public long count(S s) {
+            Spliterator<A> t = source.apply(s);
+            if (t.hasCharacteristics(Spliterator.SIZED)) {
+                return t.getExactSizeIfKnown();
+            }
+            return pool == null ? countOf(t) : runOn(t, Folds::countOf, Long::sum);
+        }
+
+        @Override
+        public Fold<S, A> parallel(ForkJoinPool pool) {
+            return new SpliteratorFold<>(source, pool);
+        }
+
+        @Override
+        public <U> Fold<U, A> compose(Lens<U, S> lens) {
+            return new SpliteratorFold<>(u -> source.apply(lens.get(u)), pool);
+        }
+
+        @Override
+        public <B> Fold<S, B> andThen(Lens<A, B> lens) {
+            return new SpliteratorFold<>(s -> new Mapped<>(source.apply(s), lens::get), pool);
+        }
+
+        @Override
+        public <B> Fold<S, B> andThen(Fold<A, B> fold) {
+            return new SpliteratorFold<>(s -> new Flattened<>(source.apply(s), fold::spliterator), pool);
+        }
+
+        /**
+         * leaf over the whole source, or when parallel over chunks of it, combined in order.
+         */
+        private <R> R run(S s, Function<Spliterator<A>, R> leaf, BinaryOperator<R> combine) {
+            return runOn(source.apply(s), leaf, combine);
+        }
+
+        private <R> R runOn(Spliterator<A> t, Function<Spliterator<A>, R> leaf, BinaryOperator<R> combine) {
+            if (pool == null) {
+                return leaf.apply(t);
+            }
+            long floor = t.hasCharacteristics(Spliterator.SIZED) ? Traversals.MIN_CHUNK : 1;
+            long threshold = Math.max(t.estimateSize() / (pool.getParallelism() * 4L), floor);
+            return pool.invoke(new Task<>(t, leaf, combine, threshold));
+        }
+    }
+
+    private static final Object NONE = new Object();
+
+    private static <A> int sumIntOf(Spliterator<A> t, ToIntFunction<? super A> f) {
+        int[] acc = {0};
+        t.forEachRemaining(a -> acc[0] += f.applyAsInt(a));
+        return acc[0];
+    }
+
+    private static <A> long sumLongOf(Spliterator<A> t, ToLongFunction<? super A> f) {
+        long[] acc = {0};
+        t.forEachRemaining(a -> acc[0] += f.applyAsLong(a));
+        return acc[0];
+    }
+
+    private static <A> double sumDoubleOf(Spliterator<A> t, ToDoubleFunction<? super A> f) {
+        double[] acc = {0};
+        t.forEachRemaining(a -> acc[0] += f.applyAsDouble(a));
+        return acc[0];
+    }
+
+    private static <A> long countOf(Spliterator<A> t) {
+        long[] n = {0};
+        t.forEachRemaining(a -> n[0]++);
+        return n[0];
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <M> M cast(Object o) {
+        return (M) o;
+    }
+
+    private static class Task<A, R> extends RecursiveTask<R> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Spliterator<A> source;
+        private final Function<Spliterator<A>, R> leaf;
+        private final BinaryOperator<R> combine;
+        private final long threshold;
+
+        Task(Spliterator<A> source, Function<Spliterator<A>, R> leaf, BinaryOperator<R> combine, long threshold) {
+            this.source = source;
+            this.leaf = leaf;
+            this.combine = combine;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected R compute() {
+            Spliterator<A> prefix;
+            if (source.estimateSize() <= threshold || (prefix = source.trySplit()) == null) {
+                return leaf.apply(source);
+            }
+            Task<A, R> left = new Task<>(prefix, leaf, combine, threshold);
+            left.fork();
+            R right = new Task<>(source, leaf, combine, threshold).compute();
+            return combine.apply(left.join(), right);
+        }
+    }
+
+    /**
+     * source with f applied to each element, splitting as source does.
+     */
+    private static class Mapped<A, B> implements Spliterator<B> {
+
+        private final Spliterator<A> source;
+        private final Function<? super A, ? extends B> f;
+
+        Mapped(Spliterator<A> source, Function<? super A, ? extends B> f) {
+            this.source = source;
+            this.f = f;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super B> action) {
+            return source.tryAdvance(a -> action.accept(f.apply(a)));
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super B> action) {
+            source.forEachRemaining(a -> action.accept(f.apply(a)));
+        }
+
+        @Override
+        public Spliterator<B> trySplit() {
+            Spliterator<A> prefix = source.trySplit();
+            return prefix == null ? null : new Mapped<>(prefix, f);
+        }
+
+        @Override
+        public long estimateSize() {
+            return source.estimateSize();
+        }
+
+        @Override
+        public int characteristics() {
+            return source.characteristics() & (ORDERED | SIZED | SUBSIZED | IMMUTABLE | CONCURRENT);
+        }
+    }
+
+    /**
+     * The elements of inner's spliterator of each element of outer.  Splits by splitting outer.
+     */
+    private static class Flattened<A, B> implements Spliterator<B> {
+
+        private final Spliterator<A> outer;
+        private final Function<? super A, Spliterator<B>> inner;
+        private Spliterator<B> current;
+
+        Flattened(Spliterator<A> outer, Function<? super A, Spliterator<B>> inner) {
+            this.outer = outer;
+            this.inner = inner;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super B> action) {
+            while (current == null || !current.tryAdvance(action)) {
+                if (!outer.tryAdvance(a -> current = inner.apply(a))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super B> action) {
+            if (current != null) {
+                current.forEachRemaining(action);
+                current = null;
+            }
+            outer.forEachRemaining(a -> inner.apply(a).forEachRemaining(action));
+        }
+
+        @Override
+        public Spliterator<B> trySplit() {
+            if (current != null) {
+                return null;
+            }
+            Spliterator<A> prefix = outer.trySplit();
+            return prefix == null ? null : new Flattened<>(prefix, inner);
+        }
+
+        @Override
+        public long estimateSize() {
+            return outer.estimateSize();
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED;
+        }
+    }
+}
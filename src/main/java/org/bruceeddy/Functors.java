@@ -5,38 +5,56 @@ import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
-import java.util.stream.Collectors;
 
 import static java.util.Optional.ofNullable;
-import static java.util.concurrent.CompletableFuture.completedFuture;
 
 public class Functors {
     static <T> Functor<List,T> listFunctor(List<T> l) {
-        return new Functor<List, T>()  {
-            @Override
-            public <R> Functor<List, R> fmap(Function<T, R> f) {
-                return listFunctor(l.stream().map(f).collect(Collectors.toList()));
-            }
-        };
+        return new ListFunctor<>(l);
     }
 
+    /**
+     * The list a listFunctor wraps, as is.  For any other Functor, whatever fmap calls back with.
+     */
+    @SuppressWarnings("unchecked")
     static <V> List<V> functorList(Functor<List, V> functor)  {
+        if (functor instanceof ListFunctor) {
+            return ((ListFunctor<V>) functor).list;
+        }
         List<V> l = new ArrayList<>();
         functor.fmap(e -> l.add(e));
         return l;
     }
 
-    static <T> Functor<Optional,T> optionalFunctor(Optional<T> l) {
-        return new Functor<Optional, T>() {
+    private static class ListFunctor<T> implements Functor<List, T> {
+        private final List<T> list;
 
-            @Override
-            public <R> Functor<Optional, R> fmap(Function<T, R> f) {
-                return optionalFunctor(l.map(f));
+        ListFunctor(List<T> list) {
+            this.list = list;
+        }
+
+        @Override
+        public <R> Functor<List, R> fmap(Function<T, R> f) {
+            List<R> mapped = new ArrayList<>(list.size());
+            for (T t : list) {
+                mapped.add(f.apply(t));
             }
-        };
+            return new ListFunctor<>(mapped);
+        }
+    }
+
+    static <T> Functor<Optional,T> optionalFunctor(Optional<T> l) {
+        return new OptionalFunctor<>(l);
     }
 
+    /**
+     * The optional an optionalFunctor wraps, as is.  For any other Functor, whatever fmap calls back with.
+     */
+    @SuppressWarnings("unchecked")
     static <V> Optional<V> functorOptional(Functor<Optional, V> functor)  {
+        if (functor instanceof OptionalFunctor) {
+            return ((OptionalFunctor<V>) functor).optional;
+        }
         class Holder<T>  {
             T held;
         }
@@ -45,22 +63,48 @@ public class Functors {
         return ofNullable(l.held);
     }
 
+    private static class OptionalFunctor<T> implements Functor<Optional, T> {
+        private final Optional<T> optional;
+
+        OptionalFunctor(Optional<T> optional) {
+            this.optional = optional;
+        }
+
+        @Override
+        public <R> Functor<Optional, R> fmap(Function<T, R> f) {
+            return new OptionalFunctor<>(optional.map(f));
+        }
+    }
+
     static <T> Functor<CompletableFuture,T> futureFunctor(CompletableFuture<T> l) {
-        return new Functor<CompletableFuture, T>()  {
-            @Override
-            public <R> Functor<CompletableFuture, R> fmap(Function<T, R> f) {
-                return futureFunctor(l.thenApply(f));
-            }
-        };
+        return new FutureFunctor<>(l);
     }
 
+    /**
+     * The future a futureFunctor wraps, as is - so not yet complete, if it isn't.  For any other Functor, a future
+     * completed by fmap, whenever fmap gets round to calling back.
+     */
+    @SuppressWarnings("unchecked")
     static <V> CompletableFuture<V> functorFuture(Functor<CompletableFuture, V> functor)  {
-        class Holder<T>  {
-            T held;
+        if (functor instanceof FutureFunctor) {
+            return ((FutureFunctor<V>) functor).future;
+        }
+        CompletableFuture<V> future = new CompletableFuture<>();
+        functor.fmap(future::complete);
+        return future;
+    }
+
+    private static class FutureFunctor<T> implements Functor<CompletableFuture, T> {
+        private final CompletableFuture<T> future;
+
+        FutureFunctor(CompletableFuture<T> future) {
+            this.future = future;
+        }
+
+        @Override
+        public <R> Functor<CompletableFuture, R> fmap(Function<T, R> f) {
+            return new FutureFunctor<>(future.thenApply(f));
         }
-        Holder<V> l = new Holder<>();
-        functor.fmap(e -> l.held = e);
-        return completedFuture(l.held);
     }
 
 }
@@ -0,0 +1,20 @@
+package org.bruceeddy;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an immutable class for lens generation by the optics-processor annotation processor.
+ * <p>
+ * For a class Address, the processor writes AddressLenses into the same package, with one static lens per
+ * instance field: an IntLens, LongLens or DoubleLens for int, long and double fields, and a Lens for anything
+ * else.  The lenses read the field directly and set it by calling the constructor whose parameters are the
+ * instance fields, in declaration order.  Fields must therefore be visible within the package, and that
+ * constructor must exist.
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface GenerateLenses {
+}
@@ -0,0 +1,201 @@
+package org.bruceeddy;
+
+import org.bruceeddy.OpticMetrics.Operation;
+
+import java.lang.management.ManagementFactory;
+import java.util.Iterator;
+import java.util.ServiceLoader;
+import java.util.function.UnaryOperator;
+
+/**
+ * Switches instrumentation of optics on and off.  Lenses.instrumented and Shutters.instrumented only wrap their
+ * optic while instrumentation is on, and hand it back untouched otherwise, so optics built while it's off cost
+ * nothing.  Switch it on before building the optics of interest: with -Doptics.instrumentation=true, which uses
+ * the first OpticMetrics service found or else an OpticStats, or with enable.
+ */
+public final class Instrumentation {
+
+    private static volatile OpticMetrics metrics = Boolean.getBoolean("optics.instrumentation") ? loadMetrics() : null;
+    private static volatile boolean measureAllocations;
+
+    private Instrumentation() {
+    }
+
+    public static void enable(OpticMetrics m) {
+        enable(m, false);
+    }
+
+    /**
+     * @param allocations whether to measure allocation per call too, which costs a ThreadMXBean call either side
+     *                    and only works on JVMs supporting com.sun.management.ThreadMXBean
+     */
+    public static void enable(OpticMetrics m, boolean allocations) {
+        measureAllocations = allocations && Allocations.SUPPORTED;
+        metrics = m;
+    }
+
+    /**
+     * Stops recording.  Optics already instrumented stay wrapped, but only check this switch per call.
+     */
+    public static void disable() {
+        metrics = null;
+    }
+
+    public static boolean isEnabled() {
+        return metrics != null;
+    }
+
+    public static OpticMetrics metrics() {
+        return metrics;
+    }
+
+    static <V, R> Lens<V, R> wrap(String name, Lens<V, R> lens) {
+        return isEnabled() ? new InstrumentedLens<>(name, lens) : lens;
+    }
+
+    static <V, R> Shutter<V, R> wrap(String name, Shutter<V, R> shutter) {
+        return isEnabled() ? new InstrumentedShutter<>(name, shutter) : shutter;
+    }
+
+    private static OpticMetrics loadMetrics() {
+        Iterator<OpticMetrics> services = ServiceLoader.load(OpticMetrics.class).iterator();
+        return services.hasNext() ? services.next() : new OpticStats();
+    }
+
+    /**
+     * One call's worth of measurement: started before the call and recorded after it.
+     */
+    private static final class Probe {
+        static long allocatedAtStart() {
+            return measureAllocations ? Allocations.current() : -1;
+        }
+
+        static void record(OpticMetrics m, String name, Operation operation, long start, long allocatedAtStart, boolean unchanged) {
+            long nanos = System.nanoTime() - start;
+            long allocated = allocatedAtStart < 0 ? -1 : Allocations.current() - allocatedAtStart;
+            m.record(name, operation, nanos, allocated, unchanged);
+        }
+    }
+
+    private static final class Allocations {
+        static final com.sun.management.ThreadMXBean BEAN = bean();
+        static final boolean SUPPORTED = BEAN != null;
+
+        static long current() {
+            return BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+
+        private static com.sun.management.ThreadMXBean bean() {
+            try {
+                java.lang.management.ThreadMXBean b = ManagementFactory.getThreadMXBean();
+                if (b instanceof com.sun.management.ThreadMXBean && ((com.sun.management.ThreadMXBean) b).isThreadAllocatedMemorySupported()) {
+                    ((com.sun.management.ThreadMXBean) b).setThreadAllocatedMemoryEnabled(true);
+                    return (com.sun.management.ThreadMXBean) b;
+                }
+            } catch (LinkageError | UnsupportedOperationException e) {
+                // not a HotSpot-like JVM
+            }
+            return null;
+        }
+    }
+
+    private static final class InstrumentedLens<V, R> extends AbstractLens<V, R> {
+
+        private final String name;
+        private final Lens<V, R> lens;
+
+        InstrumentedLens(String name, Lens<V, R> lens) {
+            this.name = name;
+            this.lens = lens;
+        }
+
+        @Override
+        public R get(V v) {
+            OpticMetrics m = metrics;
+            if (m == null) {
+                return lens.get(v);
+            }
+            long allocated = Probe.allocatedAtStart();
+            long start = System.nanoTime();
+            R r = lens.get(v);
+            Probe.record(m, name, Operation.GET, start, allocated, false);
+            return r;
+        }
+
+        @Override
+        public V set(V v, R r) {
+            OpticMetrics m = metrics;
+            if (m == null) {
+                return lens.set(v, r);
+            }
+            long allocated = Probe.allocatedAtStart();
+            long start = System.nanoTime();
+            V set = lens.set(v, r);
+            Probe.record(m, name, Operation.SET, start, allocated, set == v);
+            return set;
+        }
+
+        @Override
+        public V modify(V v, UnaryOperator<R> f) {
+            OpticMetrics m = metrics;
+            if (m == null) {
+                return lens.modify(v, f);
+            }
+            long allocated = Probe.allocatedAtStart();
+            long start = System.nanoTime();
+            V modified = lens.modify(v, f);
+            Probe.record(m, name, Operation.MODIFY, start, allocated, modified == v);
+            return modified;
+        }
+    }
+
+    private static final class InstrumentedShutter<V, R> extends AbstractShutter<V, R> {
+
+        private final String name;
+        private final Shutter<V, R> shutter;
+
+        InstrumentedShutter(String name, Shutter<V, R> shutter) {
+            this.name = name;
+            this.shutter = shutter;
+        }
+
+        @Override
+        public R getOrNull(V v) {
+            OpticMetrics m = metrics;
+            if (m == null) {
+                return shutter.getOrNull(v);
+            }
+            long allocated = Probe.allocatedAtStart();
+            long start = System.nanoTime();
+            R r = shutter.getOrNull(v);
+            Probe.record(m, name, Operation.GET, start, allocated, false);
+            return r;
+        }
+
+        @Override
+        public V setOptional(V v, R r) {
+            OpticMetrics m = metrics;
+            if (m == null) {
+                return shutter.setOptional(v, r);
+            }
+            long allocated = Probe.allocatedAtStart();
+            long start = System.nanoTime();
+            V set = shutter.setOptional(v, r);
+            Probe.record(m, name, Operation.SET, start, allocated, set == v);
+            return set;
+        }
+
+        @Override
+        public V modifyOrSame(V v, UnaryOperator<R> f) {
+            OpticMetrics m = metrics;
+            if (m == null) {
+                return shutter.modifyOrSame(v, f);
+            }
+            long allocated = Probe.allocatedAtStart();
+            long start = System.nanoTime();
+            V modified = shutter.modifyOrSame(v, f);
+            Probe.record(m, name, Operation.MODIFY, start, allocated, modified == v);
+            return modified;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package org.bruceeddy;
+
+import java.util.function.Function;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * A Lens onto an int target, which gets, sets and modifies without boxing.  LongLens and DoubleLens are the same
+ * for longs and doubles.
+ */
+public interface IntLens<V> {
+
+    @FunctionalInterface
+    interface Setter<V> {
+        V apply(int r, V v);
+    }
+
+    int get(V v);
+
+    V set(V v, int r);
+
+    V modify(V v, IntUnaryOperator f);
+
+    default Function<V, V> set(int r) {
+        return v -> set(v, r);
+    }
+
+    default Function<V, V> modify(IntUnaryOperator f) {
+        return v -> modify(v, f);
+    }
+
+    /**
+     * This lens as an ordinary, boxing, Lens.
+     */
+    Lens<V, Integer> boxed();
+
+    <U> IntLens<U> compose(Lens<U, V> comp);
+}
@@ -0,0 +1,71 @@
+package org.bruceeddy;
+
+import java.util.function.IntUnaryOperator;
+import java.util.function.ToIntFunction;
+
+public class IntLenses {
+
+    public static <V> IntLens<V> gen(ToIntFunction<V> f, IntLens.Setter<V> g) {
+        class IntLensy extends AbstractIntLens<V> {
+            public int get(V v) {
+                return f.applyAsInt(v);
+            }
+
+            public V set(V v, int r) {
+                return f.applyAsInt(v) == r ? v : g.apply(r, v);
+            }
+        }
+
+        return new IntLensy();
+    }
+
+    static <U, V> IntLens<U> compose(Lens<U, V> outer, IntLens<V> inner) {
+        return new Composed<>(outer, inner);
+    }
+
+    /**
+     * An int lens on the inside of an ordinary lens.  Composing further onto it composes onto the outer lens,
+     * so the outer path stays flat.
+     */
+    private static class Composed<U, V> implements IntLens<U> {
+
+        private final Lens<U, V> outer;
+        private final IntLens<V> inner;
+
+        Composed(Lens<U, V> outer, IntLens<V> inner) {
+            this.outer = outer;
+            this.inner = inner;
+        }
+
+        @Override
+        public int get(U u) {
+            return inner.get(outer.get(u));
+        }
+
+        @Override
+        public U set(U u, int r) {
+            V v = outer.get(u);
+            return rebuild(u, v, inner.set(v, r));
+        }
+
+        @Override
+        public U modify(U u, IntUnaryOperator f) {
+            V v = outer.get(u);
+            return rebuild(u, v, inner.modify(v, f));
+        }
+
+        private U rebuild(U u, V v, V modified) {
+            return modified == v ? u : Lenses.setChanged(outer, u, modified);
+        }
+
+        @Override
+        public Lens<U, Integer> boxed() {
+            return inner.boxed().compose(outer);
+        }
+
+        @Override
+        public <U1> IntLens<U1> compose(Lens<U1, U> comp) {
+            return new Composed<>(outer.compose(comp), inner);
+        }
+    }
+}
@@ -0,0 +1,395 @@
+package org.bruceeddy;
+
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.IntUnaryOperator;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * The fixed layout of a binary record: named fields at byte offsets, one after another with no padding but what's
+ * asked for.  Its lenses read and write the fields straight from and to a ByteBuffer - direct ones being off-heap -
+ * with no record object in between.  A record starts at the buffer's position, and numbers are in the buffer's
+ * byte order.
+ * <p>
+ * Unlike other lenses these change their source in place: set and modify write into the buffer and return it.
+ * Composing a field lens onto a struct lens adds their offsets there and then, so a nested field costs what a
+ * top-level one does.
+ */
+public final class Layout {
+
+    private enum Kind { INT8, INT16, INT32, INT64, FLOAT64, STRUCT }
+
+    private final Map<String, Field> fields;
+    private final int size;
+
+    private Layout(Map<String, Field> fields, int size) {
+        this.fields = fields;
+        this.size = size;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Bytes per record.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @throws IllegalArgumentException if there's no such field
+     */
+    public int offset(String name) {
+        return field(name).offset;
+    }
+
+    /**
+     * A lens onto the named int8, int16 or int32 field.  Setting an int8 or int16 keeps only its low bytes.
+     *
+     * @throws IllegalArgumentException if there's no such field, or it isn't one of those
+     */
+    public IntLens<ByteBuffer> intField(String name) {
+        Field f = field(name);
+        switch (f.kind) {
+            case INT8:
+                return new Int8Field(f.offset);
+            case INT16:
+                return new Int16Field(f.offset);
+            case INT32:
+                return new Int32Field(f.offset);
+            default:
+                throw new IllegalArgumentException(name + " is " + f.kind + ", not an int");
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException if there's no such field, or it isn't an int64
+     */
+    public LongLens<ByteBuffer> longField(String name) {
+        return new Int64Field(field(name, Kind.INT64).offset);
+    }
+
+    /**
+     * @throws IllegalArgumentException if there's no such field, or it isn't a float64
+     */
+    public DoubleLens<ByteBuffer> doubleField(String name) {
+        return new Float64Field(field(name, Kind.FLOAT64).offset);
+    }
+
+    /**
+     * A lens onto the named nested record.  get slices the buffer and set copies the record in, so compose field
+     * lenses of its layout onto it rather than going through it.
+     *
+     * @throws IllegalArgumentException if there's no such field, or it isn't a struct
+     */
+    public Lens<ByteBuffer, ByteBuffer> struct(String name) {
+        Field f = field(name, Kind.STRUCT);
+        return new StructField(f.offset, f.layout.size);
+    }
+
+    /**
+     * The layout of the named nested record.
+     *
+     * @throws IllegalArgumentException if there's no such field, or it isn't a struct
+     */
+    public Layout layout(String name) {
+        return field(name, Kind.STRUCT).layout;
+    }
+
+    /**
+     * The number of whole records between buf's position and its limit.
+     */
+    public int count(ByteBuffer buf) {
+        return buf.remaining() / size;
+    }
+
+    /**
+     * Hands action a view of buf positioned at each record in turn, from buf's position on.  buf itself is never
+     * moved, so other threads may read it meanwhile; the one view is made per call, not per record.
+     */
+    public void forEach(ByteBuffer buf, Consumer<ByteBuffer> action) {
+        ByteBuffer view = buf.duplicate().order(buf.order());
+        int start = buf.position();
+        int n = count(buf);
+        for (int i = 0; i < n; i++) {
+            view.position(start + i * size);
+            action.accept(view);
+        }
+    }
+
+    /**
+     * Modifies field of every record from buf's position on with f, in place.
+     */
+    public void modifyAll(ByteBuffer buf, IntLens<ByteBuffer> field, IntUnaryOperator f) {
+        forEach(buf, b -> field.modify(b, f));
+    }
+
+    public void modifyAll(ByteBuffer buf, LongLens<ByteBuffer> field, LongUnaryOperator f) {
+        forEach(buf, b -> field.modify(b, f));
+    }
+
+    public void modifyAll(ByteBuffer buf, DoubleLens<ByteBuffer> field, DoubleUnaryOperator f) {
+        forEach(buf, b -> field.modify(b, f));
+    }
+
+    private Field field(String name) {
+        Field f = fields.get(name);
+        if (f == null) {
+            throw new IllegalArgumentException("No field " + name);
+        }
+        return f;
+    }
+
+    private Field field(String name, Kind kind) {
+        Field f = field(name);
+        if (f.kind != kind) {
+            throw new IllegalArgumentException(name + " is " + f.kind + ", not " + kind);
+        }
+        return f;
+    }
+
+    public static final class Builder {
+
+        private final Map<String, Field> fields = new LinkedHashMap<>();
+        private int offset;
+
+        private Builder() {
+        }
+
+        public Builder int8(String name) {
+            return add(name, Kind.INT8, 1, null);
+        }
+
+        public Builder int16(String name) {
+            return add(name, Kind.INT16, 2, null);
+        }
+
+        public Builder int32(String name) {
+            return add(name, Kind.INT32, 4, null);
+        }
+
+        public Builder int64(String name) {
+            return add(name, Kind.INT64, 8, null);
+        }
+
+        public Builder float64(String name) {
+            return add(name, Kind.FLOAT64, 8, null);
+        }
+
+        public Builder struct(String name, Layout layout) {
+            return add(name, Kind.STRUCT, layout.size, layout);
+        }
+
+        /**
+         * Skips bytes, e.g. to align the next field.
+         */
+        public Builder padding(int bytes) {
+            if (bytes < 0) {
+                throw new IllegalArgumentException("Negative padding " + bytes);
+            }
+            offset += bytes;
+            return this;
+        }
+
+        public Layout build() {
+            return new Layout(Collections.unmodifiableMap(new LinkedHashMap<>(fields)), offset);
+        }
+
+        private Builder add(String name, Kind kind, int size, Layout layout) {
+            if (fields.containsKey(name)) {
+                throw new IllegalArgumentException("Field " + name + " already defined");
+            }
+            fields.put(name, new Field(kind, offset, layout));
+            offset += size;
+            return this;
+        }
+    }
+
+    private static final class Field {
+        final Kind kind;
+        final int offset;
+        final Layout layout;
+
+        Field(Kind kind, int offset, Layout layout) {
+            this.kind = kind;
+            this.offset = offset;
+            this.layout = layout;
+        }
+    }
+
+    /**
+     * The offset of struct, if comp is one, for composing onto it by adding offsets; otherwise -1.
+     */
+    private static int structOffset(Lens<?, ?> comp) {
+        return comp instanceof StructField ? ((StructField) comp).offset : -1;
+    }
+
+    private static final class Int8Field extends AbstractIntLens<ByteBuffer> {
+        private final int offset;
+
+        Int8Field(int offset) {
+            this.offset = offset;
+        }
+
+        @Override
+        public int get(ByteBuffer b) {
+            return b.get(b.position() + offset);
+        }
+
+        @Override
+        public ByteBuffer set(ByteBuffer b, int r) {
+            return b.put(b.position() + offset, (byte) r);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <U> IntLens<U> compose(Lens<U, ByteBuffer> comp) {
+            int o = structOffset(comp);
+            return o < 0 ? super.compose(comp) : (IntLens<U>) new Int8Field(o + offset);
+        }
+    }
+
+    private static final class Int16Field extends AbstractIntLens<ByteBuffer> {
+        private final int offset;
+
+        Int16Field(int offset) {
+            this.offset = offset;
+        }
+
+        @Override
+        public int get(ByteBuffer b) {
+            return b.getShort(b.position() + offset);
+        }
+
+        @Override
+        public ByteBuffer set(ByteBuffer b, int r) {
+            return b.putShort(b.position() + offset, (short) r);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <U> IntLens<U> compose(Lens<U, ByteBuffer> comp) {
+            int o = structOffset(comp);
+            return o < 0 ? super.compose(comp) : (IntLens<U>) new Int16Field(o + offset);
+        }
+    }
+
+    private static final class Int32Field extends AbstractIntLens<ByteBuffer> {
+        private final int offset;
+
+        Int32Field(int offset) {
+            this.offset = offset;
+        }
+
+        @Override
+        public int get(ByteBuffer b) {
+            return b.getInt(b.position() + offset);
+        }
+
+        @Override
+        public ByteBuffer set(ByteBuffer b, int r) {
+            return b.putInt(b.position() + offset, r);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <U> IntLens<U> compose(Lens<U, ByteBuffer> comp) {
+            int o = structOffset(comp);
+            return o < 0 ? super.compose(comp) : (IntLens<U>) new Int32Field(o + offset);
+        }
+    }
+
+    private static final class Int64Field extends AbstractLongLens<ByteBuffer> {
+        private final int offset;
+
+        Int64Field(int offset) {
+            this.offset = offset;
+        }
+
+        @Override
+        public long get(ByteBuffer b) {
+            return b.getLong(b.position() + offset);
+        }
+
+        @Override
+        public ByteBuffer set(ByteBuffer b, long r) {
+            return b.putLong(b.position() + offset, r);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <U> LongLens<U> compose(Lens<U, ByteBuffer> comp) {
+            int o = structOffset(comp);
+            return o < 0 ? super.compose(comp) : (LongLens<U>) new Int64Field(o + offset);
+        }
+    }
+
+    private static final class Float64Field extends AbstractDoubleLens<ByteBuffer> {
+        private final int offset;
+
+        Float64Field(int offset) {
+            this.offset = offset;
+        }
+
+        @Override
+        public double get(ByteBuffer b) {
+            return b.getDouble(b.position() + offset);
+        }
+
+        @Override
+        public ByteBuffer set(ByteBuffer b, double r) {
+            return b.putDouble(b.position() + offset, r);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <U> DoubleLens<U> compose(Lens<U, ByteBuffer> comp) {
+            int o = structOffset(comp);
+            return o < 0 ? super.compose(comp) : (DoubleLens<U>) new Float64Field(o + offset);
+        }
+    }
+
+    private static final class StructField extends AbstractLens<ByteBuffer, ByteBuffer> {
+        private final int offset;
+        private final int size;
+
+        StructField(int offset, int size) {
+            this.offset = offset;
+            this.size = size;
+        }
+
+        @Override
+        public ByteBuffer get(ByteBuffer b) {
+            ByteBuffer d = b.duplicate();
+            d.position(b.position() + offset);
+            d.limit(b.position() + offset + size);
+            return d.slice().order(b.order());
+        }
+
+        /**
+         * Copies r's record, from its position, over this one.
+         */
+        @Override
+        public ByteBuffer set(ByteBuffer b, ByteBuffer r) {
+            ByteBuffer from = r.duplicate();
+            from.limit(from.position() + size);
+            ByteBuffer to = b.duplicate();
+            to.position(b.position() + offset);
+            to.put(from);
+            return b;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <U> Lens<U, ByteBuffer> compose(Lens<U, ByteBuffer> comp) {
+            int o = structOffset(comp);
+            return o < 0 ? super.compose(comp) : (Lens<U, ByteBuffer>) new StructField(o + offset, size);
+        }
+    }
+}
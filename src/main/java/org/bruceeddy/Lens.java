@@ -1,25 +1,110 @@
 package org.bruceeddy;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.function.Function;
+import java.util.function.UnaryOperator;
 
 public interface Lens<V, R> {
 
     R get(V v);
 
-    Function<V, V> set(R i);
+    /**
+     * Sets the target of v to r directly, without building an intermediate Function.  Where r is already the
+     * target, v itself may be returned.
+     */
+    V set(V v, R r);
 
-    Function<V, V> modify(Function<R, R> f);
+    /**
+     * Modifies the target of v with f directly, without building an intermediate Function.  Where f returns the
+     * very same target, v itself is returned.
+     */
+    V modify(V v, UnaryOperator<R> f);
 
-    Function<V, List<V>> modifyFList(Function<R, List<R>> f);
+    default Function<V, V> set(R i) {
+        return v -> set(v, i);
+    }
 
-    Function<V, Optional<V>> modifyFOptional(Function<R, Optional<R>> f);
+    default Function<V, V> modify(Function<R, R> f) {
+        UnaryOperator<R> op = f::apply;
+        return v -> modify(v, op);
+    }
 
-    Function<V, CompletableFuture<V>> modifyFFuture(Function<R, CompletableFuture<R>> f);
+    /**
+     * Modifies the target of each of vs with f, in one presized pass.  Where f returns the very same target, the
+     * original element is kept rather than rebuilt.
+     */
+    default List<V> modifyAll(List<V> vs, UnaryOperator<R> f) {
+        List<V> modified = new ArrayList<>(vs.size());
+        for (V v : vs) {
+            modified.add(modify(v, f));
+        }
+        return modified;
+    }
 
-    <T> Function<V, Functor<T,V>> modifyF(Function<R,Functor<T,R>> f);
+    /**
+     * As modifyAll(List, UnaryOperator), for an array.  vs itself is left untouched.
+     */
+    default V[] modifyAll(V[] vs, UnaryOperator<R> f) {
+        V[] modified = vs.clone();
+        for (int i = 0; i < vs.length; i++) {
+            modified[i] = modify(vs[i], f);
+        }
+        return modified;
+    }
+
+    /**
+     * Sets the target of v to each of the targets f gives, in order: one get, then one set per output, straight
+     * into a presized list.
+     */
+    default Function<V, List<V>> modifyFList(Function<R, List<R>> f) {
+        return v -> {
+            List<R> rs = f.apply(get(v));
+            List<V> modified = new ArrayList<>(rs.size());
+            for (R r : rs) {
+                modified.add(set(v, r));
+            }
+            return modified;
+        };
+    }
+
+    default Function<V, Optional<V>> modifyFOptional(Function<R, Optional<R>> f) {
+        return v -> f.apply(get(v)).map(r -> set(v, r));
+    }
+
+    /**
+     * Modifies the target of v with an asynchronous f, never blocking.  The returned future completes, via a single
+     * further stage however long a composed lens is, once f's does.
+     */
+    default Function<V, CompletableFuture<V>> modifyFFuture(Function<R, CompletableFuture<R>> f) {
+        return v -> f.apply(get(v)).thenApply(r -> set(v, r));
+    }
+
+    /**
+     * As modifyFFuture(Function), but setting the new target on executor.
+     */
+    default Function<V, CompletableFuture<V>> modifyFFuture(Function<R, CompletableFuture<R>> f, Executor executor) {
+        return v -> f.apply(get(v)).thenApplyAsync(r -> set(v, r), executor);
+    }
+
+    /**
+     * Modifies the target of v with f, in whichever functor f returns: one fmap however long a composed lens is.
+     */
+    default <T> Function<V, Functor<T,V>> modifyF(Function<R,Functor<T,R>> f) {
+        return v -> f.apply(get(v)).fmap(r -> set(v, r));
+    }
+
+    /**
+     * Modifies the target of v with f, in whichever applicative ap is - e.g. Applicatives.optional() - with one map
+     * however long a composed lens is.  Through Applicatives.identity() this is modify, and through
+     * Applicatives.constant(..) it is get, with nothing extra allocated either way.
+     */
+    default <F> F modifyF(Applicative<F> ap, V v, Function<R, F> f) {
+        return ap.mapSet(f.apply(get(v)), this, v);
+    }
 
     <U> Lens<U, R> compose(Lens<U, V> comp);
 }
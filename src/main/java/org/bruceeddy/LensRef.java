@@ -0,0 +1,142 @@
+package org.bruceeddy;
+
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.UnaryOperator;
+
+/**
+ * A mutable cell holding an immutable value, updated atomically through lenses.  Each update is a compare and set
+ * loop: an update which changes nothing skips the compare and set, and one which loses a race backs off - spinning,
+ * then yielding, then parking for exponentially longer - before trying again, so that many writers don't retry in
+ * lockstep.  As with AtomicReference.updateAndGet, functions passed in may be called more than once.
+ */
+public final class LensRef<V> {
+
+    private final AtomicReference<V> ref;
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    public LensRef(V initial) {
+        this.ref = new AtomicReference<>(initial);
+    }
+
+    public V get() {
+        return ref.get();
+    }
+
+    public <R> R get(Lens<V, R> lens) {
+        return lens.get(ref.get());
+    }
+
+    /**
+     * @return the value after the update
+     */
+    public <R> V set(Lens<V, R> lens, R r) {
+        return update(v -> lens.set(v, r));
+    }
+
+    /**
+     * @return the value after the update
+     */
+    public <R> V modify(Lens<V, R> lens, UnaryOperator<R> f) {
+        return update(v -> lens.modify(v, f));
+    }
+
+    /**
+     * @return the value after the update, which is the value before it if there was no target
+     */
+    public <R> V modify(Shutter<V, R> shutter, UnaryOperator<R> f) {
+        return update(v -> shutter.modifyOrSame(v, f));
+    }
+
+    /**
+     * As modify, but giving up after maxAttempts lost races.
+     *
+     * @return the value after the update, or empty if it gave up
+     */
+    public <R> Optional<V> tryModify(Lens<V, R> lens, UnaryOperator<R> f, int maxAttempts) {
+        for (int attempt = 1; ; attempt++) {
+            V v = ref.get();
+            V m = lens.modify(v, f);
+            if (tryUpdate(v, m)) {
+                return Optional.of(m);
+            }
+            if (attempt >= maxAttempts) {
+                failures.increment();
+                return Optional.empty();
+            }
+            retries.increment();
+            backoff(attempt);
+        }
+    }
+
+    /**
+     * @return the value after the update
+     */
+    public V update(UnaryOperator<V> f) {
+        for (int attempt = 1; ; attempt++) {
+            V v = ref.get();
+            V m = f.apply(v);
+            if (tryUpdate(v, m)) {
+                return m;
+            }
+            retries.increment();
+            backoff(attempt);
+        }
+    }
+
+    /**
+     * Compare and sets lost, and so retried.
+     */
+    public long retries() {
+        return retries.sum();
+    }
+
+    /**
+     * Updates which changed nothing, and so needed no compare and set.
+     */
+    public long skipped() {
+        return skipped.sum();
+    }
+
+    /**
+     * tryModifys which gave up.
+     */
+    public long failures() {
+        return failures.sum();
+    }
+
+    /**
+     * Whether m, computed from v, is now the value: either it's v itself, so there's nothing to set, or the
+     * compare and set won.
+     */
+    private boolean tryUpdate(V v, V m) {
+        if (m == v) {
+            skipped.increment();
+            return true;
+        }
+        return ref.compareAndSet(v, m);
+    }
+
+    /**
+     * The spin's volatile reads keep it from being optimised away.  Thread.onSpinWait would be better, but needs
+     * Java 9.
+     */
+    private void backoff(int attempt) {
+        if (attempt <= 4) {
+            int spins = ThreadLocalRandom.current().nextInt(16 << attempt);
+            for (int i = 0; i < spins; i++) {
+                ref.get();
+            }
+        } else if (attempt <= 8) {
+            Thread.yield();
+        } else {
+            long nanos = 1_000L << Math.min(attempt - 8, 10);
+            LockSupport.parkNanos(ThreadLocalRandom.current().nextLong(nanos / 2, nanos));
+        }
+    }
+}
@@ -1,109 +1,254 @@
 package org.bruceeddy;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.ListIterator;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.concurrent.CompletableFuture;
 import java.util.function.BiFunction;
 import java.util.function.Function;
-
-import static org.bruceeddy.Curry.curry;
-import static org.bruceeddy.Functors.*;
+import java.util.function.UnaryOperator;
 
 public class Lenses {
 
+    /**
+     * A lens from a getter f and a setter g.  set and modify return v itself, without calling g, when the new
+     * target is the very same object as the old one.
+     */
     public static <V, R> Lens<V, R> gen(Function<V, R> f, BiFunction<R, V, V> g) {
-        class Lensy implements Lens<V, R> {
+        class Lensy extends AbstractLens<V, R> {
             public R get(V v) {
                 return f.apply(v);
             }
 
-            public Function<V, V> set(R i) {
-                return curry(g).apply(i);
-            }
-
-            public Function<V, V> modify(Function<R, R> f) {
-                return v -> set(f.apply(get(v))).apply(v);
-            }
-
-            public Function<V, List<V>> modifyFList(Function<R, List<R>> f) {
-                return b -> functorList(modifyF(r -> listFunctor(f.apply(r))).apply(b));
-                //return v -> f.apply(get(v)).stream().map(r -> set(r).apply(v)).collect(toList());
+            public V set(V v, R r) {
+                return f.apply(v) == r ? v : g.apply(r, v);
             }
 
             @Override
-            public Function<V, Optional<V>> modifyFOptional(Function<R, Optional<R>> f) {
-                return b -> functorOptional(modifyF(r -> optionalFunctor(f.apply(r))).apply(b));
-                // return v -> f.apply(get(v)).map(r -> set(r).apply(v));
+            V setChanged(V v, R r) {
+                return g.apply(r, v);
             }
 
             @Override
-            public Function<V, CompletableFuture<V>> modifyFFuture(Function<R, CompletableFuture<R>> f) {
-                //return b -> functorFuture(modifyF(r -> futureFunctor(f.apply(r))).apply(b));
-                return v -> f.apply(get(v)).thenApply(r -> set(r).apply(v));
+            public V modify(V v, UnaryOperator<R> h) {
+                R r = f.apply(v);
+                R m = h.apply(r);
+                return m == r ? v : g.apply(m, v);
             }
+        }
 
-            @Override
-            public <T> Function<V, Functor<T, V>> modifyF(Function<R, Functor<T, R>> f) {
-                return v -> f.apply(get(v)).fmap(r -> set(r).apply(v));
-            }
+        return new Lensy();
+    }
 
-            public <U> Lens<U, R> compose(Lens<U, V> comp) {
-                return new Composed(comp, Lensy.this);
-            }
-        }
+    /**
+     * lens, but with set and modify returning v itself when the new target equals the old one, rather than only
+     * when it is the same object.  Worth it where equal-but-new targets are common and rebuilding v is dear.
+     */
+    public static <V, R> Lens<V, R> unchangedIfEqual(Lens<V, R> lens) {
+        return new UnchangedIfEqual<>(lens);
+    }
+
+    /**
+     * A lens onto the named instance field of type, built once with method handles and cached.  type needs a
+     * constructor taking every instance field, as records and most immutable classes have.  Its parameters are
+     * matched to fields by name, for records or classes compiled with -parameters, or else by type.
+     *
+     * @throws IllegalArgumentException if there's no such field or constructor, or parameters can't be matched
+     */
+    public static <V, R> Lens<V, R> derive(Class<V> type, String field) {
+        return DerivedLenses.derive(type, field);
+    }
 
+    /**
+     * lens, remembering the targets of up to about maximumSize recently got sources, by identity.  For lenses
+     * whose get computes something, e.g. parses or normalises, and which are read from the same snapshot often.
+     */
+    public static <V, R> CachedLens<V, R> cached(Lens<V, R> lens, int maximumSize) {
+        return new CachedLens<>(lens, maximumSize);
+    }
 
-        return new Lensy();
+    /**
+     * lens, reporting each get, set and modify to Instrumentation's OpticMetrics under name, if instrumentation is
+     * on.  If it's off, lens itself.
+     */
+    public static <V, R> Lens<V, R> instrumented(String name, Lens<V, R> lens) {
+        return Instrumentation.wrap(name, lens);
+    }
+
+    /**
+     * A lens onto the entry for key, present or not: setting Optional.empty() removes it.  Only the path to the
+     * key is copied, however big the map.
+     */
+    public static <K, V> Lens<PersistentMap<K, V>, Optional<V>> at(K key) {
+        return gen(m -> Optional.ofNullable(m.get(key)), (v, m) -> v.isPresent() ? m.put(key, v.get()) : m.remove(key));
+    }
+
+    /**
+     * Starts a batch of updates to root, to be applied together by Edit.commit().
+     */
+    public static <V> Edit<V> edit(V root) {
+        return new Edit<>(root);
     }
 
-    private static class Composed<U, R, V> implements Lens<U, R> {
+    /**
+     * Hands the lens the old target back whenever the new one is equal to it, so that the lens - and any composed
+     * path it's the end of - keeps the source as it is.
+     */
+    private static class UnchangedIfEqual<V, R> extends AbstractLens<V, R> {
 
-        private Lens<U, V> comp1;
-        private Lens<V, R> comp2;
+        private final Lens<V, R> lens;
 
-        public Composed(Lens<U, V> comp1, Lens<V, R> comp2) {
-            this.comp1 = comp1;
-            this.comp2 = comp2;
+        UnchangedIfEqual(Lens<V, R> lens) {
+            this.lens = lens;
         }
 
         @Override
-        public R get(U u) {
-            return comp2.get(comp1.get(u));
+        public R get(V v) {
+            return lens.get(v);
         }
 
         @Override
-        public Function<U, U> set(R i) {
-            return comp1.modify(comp2.set(i));
+        public V set(V v, R r) {
+            return lens.modify(v, old -> Objects.equals(old, r) ? old : r);
         }
 
         @Override
-        public Function<U, U> modify(Function<R, R> f) {
-            return comp1.modify(comp2.modify(f));
+        public V modify(V v, UnaryOperator<R> f) {
+            return lens.modify(v, old -> {
+                R r = f.apply(old);
+                return Objects.equals(old, r) ? old : r;
+            });
+        }
+    }
+
+    /**
+     * lens.set, for an r already known not to be v's target, so skipping the get which set may make to check.
+     */
+    static <V, R> V setChanged(Lens<V, R> lens, V v, R r) {
+        return lens instanceof AbstractLens ? ((AbstractLens<V, R>) lens).setChanged(v, r) : lens.set(v, r);
+    }
+
+    static <U, V, R> Lens<U, R> compose(Lens<U, V> outer, Lens<V, R> inner) {
+        return Composed.of(outer, inner);
+    }
+
+    /**
+     * The lenses lens is composed of, outermost first, each typed as from and to Object since each level's types
+     * differ.  Callers mustn't modify the array.
+     */
+    static Lens<Object, Object>[] path(Lens<?, ?> lens) {
+        return Composed.pathOf(lens);
+    }
+
+    /**
+     * The lens composed of path from index from on.
+     */
+    static Lens<Object, Object> ofPath(Lens<Object, Object>[] path, int from) {
+        return path.length - from == 1 ? path[from] : new Composed<>(Arrays.copyOfRange(path, from, path.length));
+    }
+
+    /**
+     * A chain of lenses, held as a flat path from the outermost lens to the innermost.  Composing onto a
+     * Composed concatenates paths rather than nesting, so get is a single loop and set is one walk down
+     * and one rebuild up, whatever the depth.
+     */
+    @SuppressWarnings("unchecked")
+    private static class Composed<U, R> implements Lens<U, R> {
+
+        private final Lens<Object, Object>[] path;
+
+        private Composed(Lens<Object, Object>[] path) {
+            this.path = path;
+        }
+
+        static <U, V, R> Lens<U, R> of(Lens<U, V> outer, Lens<V, R> inner) {
+            Lens<Object, Object>[] o = pathOf(outer);
+            Lens<Object, Object>[] i = pathOf(inner);
+            Lens<Object, Object>[] path = Arrays.copyOf(o, o.length + i.length);
+            System.arraycopy(i, 0, path, o.length, i.length);
+            return new Composed<>(path);
+        }
+
+        private static Lens<Object, Object>[] pathOf(Lens<?, ?> l) {
+            return l instanceof Composed ? ((Composed<?, ?>) l).path : (Lens<Object, Object>[]) new Lens<?, ?>[]{l};
         }
 
         @Override
-        public Function<U, List<U>> modifyFList(Function<R, List<R>> f) {
-            return comp1.modifyFList(comp2.modifyFList(f));
+        public R get(U u) {
+            Object o = u;
+            for (Lens<Object, Object> l : path) {
+                o = l.get(o);
+            }
+            return (R) o;
         }
 
         @Override
-        public Function<U, Optional<U>> modifyFOptional(Function<R, Optional<R>> f) {
-            return comp1.modifyFOptional(comp2.modifyFOptional(f));
+        public U set(U u, R r) {
+            return (U) setFrom(0, u, r);
+        }
+
+        private Object setFrom(int i, Object o, Object r) {
+            Lens<Object, Object> l = path[i];
+            if (i == path.length - 1) {
+                return l.set(o, r);
+            }
+            Object child = l.get(o);
+            return rebuild(l, o, child, setFrom(i + 1, child, r));
         }
 
         @Override
-        public Function<U, CompletableFuture<U>> modifyFFuture(Function<R, CompletableFuture<R>> f) {
-            return comp1.modifyFFuture(comp2.modifyFFuture(f));
+        public U modify(U u, UnaryOperator<R> f) {
+            return (U) modifyFrom(0, u, (UnaryOperator<Object>) f);
         }
 
+        private Object modifyFrom(int i, Object o, UnaryOperator<Object> f) {
+            Lens<Object, Object> l = path[i];
+            if (i == path.length - 1) {
+                return l.modify(o, f);
+            }
+            Object child = l.get(o);
+            return rebuild(l, o, child, modifyFrom(i + 1, child, f));
+        }
+
+        /**
+         * Levels below which nothing changed are kept, not rebuilt, and those rebuilt don't get child again.
+         */
+        private static Object rebuild(Lens<Object, Object> l, Object o, Object child, Object modifiedChild) {
+            return modifiedChild == child ? o : setChanged(l, o, modifiedChild);
+        }
+
+        /**
+         * One get per level on the way down, the innermost sets straight into one presized list, and each level
+         * on the way up rebuilds that list's elements in place.
+         */
         @Override
-        public <T> Function<U, Functor<T, U>> modifyF(Function<R, Functor<T, R>> f) {
-            return comp1.modifyF(comp2.modifyF(f));
+        public Function<U, List<U>> modifyFList(Function<R, List<R>> f) {
+            return u -> (List<U>) listFrom(0, u, (Function<Object, List<Object>>) (Function<?, ?>) f);
+        }
+
+        private List<Object> listFrom(int i, Object o, Function<Object, List<Object>> f) {
+            Lens<Object, Object> l = path[i];
+            if (i == path.length - 1) {
+                List<Object> rs = f.apply(l.get(o));
+                List<Object> modified = new ArrayList<>(rs.size());
+                for (Object r : rs) {
+                    modified.add(l.set(o, r));
+                }
+                return modified;
+            }
+            Object child = l.get(o);
+            List<Object> modified = listFrom(i + 1, child, f);
+            for (ListIterator<Object> it = modified.listIterator(); it.hasNext(); ) {
+                it.set(rebuild(l, o, child, it.next()));
+            }
+            return modified;
         }
 
         @Override
-        public <U1> Lens<U1, R> compose(Lens<U1, U> comp1) {
-            return new Composed(comp1, this);
+        public <U1> Lens<U1, R> compose(Lens<U1, U> comp) {
+            return of(comp, this);
         }
     }
 }
@@ -0,0 +1,36 @@
+package org.bruceeddy;
+
+import java.util.function.Function;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * As IntLens, for longs.
+ */
+public interface LongLens<V> {
+
+    @FunctionalInterface
+    interface Setter<V> {
+        V apply(long r, V v);
+    }
+
+    long get(V v);
+
+    V set(V v, long r);
+
+    V modify(V v, LongUnaryOperator f);
+
+    default Function<V, V> set(long r) {
+        return v -> set(v, r);
+    }
+
+    default Function<V, V> modify(LongUnaryOperator f) {
+        return v -> modify(v, f);
+    }
+
+    /**
+     * This lens as an ordinary, boxing, Lens.
+     */
+    Lens<V, Long> boxed();
+
+    <U> LongLens<U> compose(Lens<U, V> comp);
+}
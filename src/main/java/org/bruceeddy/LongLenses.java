@@ -0,0 +1,70 @@
+package org.bruceeddy;
+
+import java.util.function.LongUnaryOperator;
+import java.util.function.ToLongFunction;
+
+public class LongLenses {
+
+    public static <V> LongLens<V> gen(ToLongFunction<V> f, LongLens.Setter<V> g) {
+        class LongLensy extends AbstractLongLens<V> {
+            public long get(V v) {
+                return f.applyAsLong(v);
+            }
+
+            public V set(V v, long r) {
+                return f.applyAsLong(v) == r ? v : g.apply(r, v);
+            }
+        }
+
+        return new LongLensy();
+    }
+
+    static <U, V> LongLens<U> compose(Lens<U, V> outer, LongLens<V> inner) {
+        return new Composed<>(outer, inner);
+    }
+
+    /**
+     * As IntLenses.Composed.
+     */
+    private static class Composed<U, V> implements LongLens<U> {
+
+        private final Lens<U, V> outer;
+        private final LongLens<V> inner;
+
+        Composed(Lens<U, V> outer, LongLens<V> inner) {
+            this.outer = outer;
+            this.inner = inner;
+        }
+
+        @Override
+        public long get(U u) {
+            return inner.get(outer.get(u));
+        }
+
+        @Override
+        public U set(U u, long r) {
+            V v = outer.get(u);
+            return rebuild(u, v, inner.set(v, r));
+        }
+
+        @Override
+        public U modify(U u, LongUnaryOperator f) {
+            V v = outer.get(u);
+            return rebuild(u, v, inner.modify(v, f));
+        }
+
+        private U rebuild(U u, V v, V modified) {
+            return modified == v ? u : Lenses.setChanged(outer, u, modified);
+        }
+
+        @Override
+        public Lens<U, Long> boxed() {
+            return inner.boxed().compose(outer);
+        }
+
+        @Override
+        public <U1> LongLens<U1> compose(Lens<U1, U> comp) {
+            return new Composed<>(outer.compose(comp), inner);
+        }
+    }
+}
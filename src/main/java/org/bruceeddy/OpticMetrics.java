@@ -0,0 +1,21 @@
+package org.bruceeddy;
+
+/**
+ * Where instrumented optics report their calls.  Install an implementation with Instrumentation.enable, or list it
+ * in META-INF/services/org.bruceeddy.OpticMetrics and start with -Doptics.instrumentation=true.  record is called
+ * on the caller's thread for every call, so it should be cheap and must be thread safe.
+ */
+public interface OpticMetrics {
+
+    enum Operation {
+        GET, SET, MODIFY
+    }
+
+    /**
+     * @param optic          the name the optic was instrumented under
+     * @param nanos          how long the call took
+     * @param allocatedBytes roughly how much the calling thread allocated during it, or -1 if not measured
+     * @param unchanged      whether a set or modify handed back its source as it was
+     */
+    void record(String optic, Operation operation, long nanos, long allocatedBytes, boolean unchanged);
+}
@@ -0,0 +1,89 @@
+package org.bruceeddy;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * OpticMetrics which keeps call counts, latency histograms, allocation totals and unchanged ratios per optic, in
+ * memory, for reading back through stats(name).
+ */
+public final class OpticStats implements OpticMetrics {
+
+    private final ConcurrentMap<String, Stats> optics = new ConcurrentHashMap<>();
+
+    @Override
+    public void record(String optic, Operation operation, long nanos, long allocatedBytes, boolean unchanged) {
+        Stats s = optics.get(optic);
+        if (s == null) {
+            s = optics.computeIfAbsent(optic, o -> new Stats());
+        }
+        s.record(operation, nanos, allocatedBytes, unchanged);
+    }
+
+    public Set<String> optics() {
+        return optics.keySet();
+    }
+
+    /**
+     * The stats for optic, empty if it hasn't been called.
+     */
+    public Stats stats(String optic) {
+        Stats s = optics.get(optic);
+        return s == null ? new Stats() : s;
+    }
+
+    public static final class Stats {
+
+        private final LongAdder[] calls = new LongAdder[Operation.values().length];
+        private final LatencyHistogram[] latencies = new LatencyHistogram[calls.length];
+        private final LongAdder unchanged = new LongAdder();
+        private final LongAdder updates = new LongAdder();
+        private final LongAdder allocatedBytes = new LongAdder();
+
+        Stats() {
+            for (int i = 0; i < calls.length; i++) {
+                calls[i] = new LongAdder();
+                latencies[i] = new LatencyHistogram();
+            }
+        }
+
+        void record(Operation operation, long nanos, long allocated, boolean same) {
+            calls[operation.ordinal()].increment();
+            latencies[operation.ordinal()].record(nanos);
+            if (allocated >= 0) {
+                allocatedBytes.add(allocated);
+            }
+            if (operation != Operation.GET) {
+                updates.increment();
+                if (same) {
+                    unchanged.increment();
+                }
+            }
+        }
+
+        public long calls(Operation operation) {
+            return calls[operation.ordinal()].sum();
+        }
+
+        public LatencyHistogram latency(Operation operation) {
+            return latencies[operation.ordinal()];
+        }
+
+        /**
+         * Bytes allocated across all measured calls.  Only counted when allocations are being measured.
+         */
+        public long allocatedBytes() {
+            return allocatedBytes.sum();
+        }
+
+        /**
+         * The fraction of sets and modifies which changed nothing, and so are candidates for skipping altogether.
+         */
+        public double unchangedRatio() {
+            long n = updates.sum();
+            return n == 0 ? 0 : (double) unchanged.sum() / n;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package org.bruceeddy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Changes to a V, each the id of a path in a PatchSchema and the new target there, to be set in order.  Its size
+ * is that of the targets which changed, however big the V.
+ */
+public final class Patch<V> {
+
+    private final PatchSchema<V> schema;
+    private final int[] ids;
+    private final Object[] values;
+
+    Patch(PatchSchema<V> schema, int[] ids, Object[] values) {
+        this.schema = schema;
+        this.ids = ids;
+        this.values = values;
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public boolean isEmpty() {
+        return ids.length == 0;
+    }
+
+    /**
+     * The id of the i'th change's path.
+     */
+    public int id(int i) {
+        return ids[i];
+    }
+
+    /**
+     * The i'th change's new target.
+     */
+    public Object value(int i) {
+        return values[i];
+    }
+
+    /**
+     * Sets each changed target of v in turn.  v itself if none changes anything.
+     */
+    public V apply(V v) {
+        for (int i = 0; i < ids.length; i++) {
+            v = schema.path(ids[i]).set(v, values[i]);
+        }
+        return v;
+    }
+
+    /**
+     * The number of changes, then each's id and target in its path's codec.  Numbers are varints, so a patch of
+     * one small int is six bytes.
+     */
+    public byte[] encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 * ids.length + 1);
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            PatchSchema.writeVarInt(out, ids.length);
+            for (int i = 0; i < ids.length; i++) {
+                PatchSchema.writeVarInt(out, ids[i]);
+                schema.path(ids[i]).write(out, values[i]);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+}
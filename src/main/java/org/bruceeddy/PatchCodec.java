@@ -0,0 +1,15 @@
+package org.bruceeddy;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Writes and reads the targets of one path of a PatchSchema.  read must read back exactly what write wrote.
+ */
+public interface PatchCodec<R> {
+
+    void write(DataOutput out, R r) throws IOException;
+
+    R read(DataInput in) throws IOException;
+}
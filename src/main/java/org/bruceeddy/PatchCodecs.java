@@ -0,0 +1,128 @@
+package org.bruceeddy;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Optional;
+
+public class PatchCodecs {
+
+    public static final PatchCodec<Integer> INT = new PatchCodec<Integer>() {
+        @Override
+        public void write(DataOutput out, Integer i) throws IOException {
+            out.writeInt(i);
+        }
+
+        @Override
+        public Integer read(DataInput in) throws IOException {
+            return in.readInt();
+        }
+    };
+
+    public static final PatchCodec<Long> LONG = new PatchCodec<Long>() {
+        @Override
+        public void write(DataOutput out, Long l) throws IOException {
+            out.writeLong(l);
+        }
+
+        @Override
+        public Long read(DataInput in) throws IOException {
+            return in.readLong();
+        }
+    };
+
+    public static final PatchCodec<Double> DOUBLE = new PatchCodec<Double>() {
+        @Override
+        public void write(DataOutput out, Double d) throws IOException {
+            out.writeDouble(d);
+        }
+
+        @Override
+        public Double read(DataInput in) throws IOException {
+            return in.readDouble();
+        }
+    };
+
+    public static final PatchCodec<Boolean> BOOLEAN = new PatchCodec<Boolean>() {
+        @Override
+        public void write(DataOutput out, Boolean b) throws IOException {
+            out.writeBoolean(b);
+        }
+
+        @Override
+        public Boolean read(DataInput in) throws IOException {
+            return in.readBoolean();
+        }
+    };
+
+    /**
+     * UTF-8, preceded by its length in bytes.  Unlike DataOutput.writeUTF, not limited to 64K.  Reading grows its
+     * buffer as the bytes arrive, so a corrupt length runs out of input rather than memory.
+     */
+    public static final PatchCodec<String> STRING = new PatchCodec<String>() {
+        @Override
+        public void write(DataOutput out, String s) throws IOException {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+
+        @Override
+        public String read(DataInput in) throws IOException {
+            int length = in.readInt();
+            if (length < 0) {
+                throw new IOException("Negative string length " + length);
+            }
+            byte[] bytes = new byte[Math.min(length, 8192)];
+            in.readFully(bytes);
+            while (bytes.length < length) {
+                int read = bytes.length;
+                bytes = Arrays.copyOf(bytes, (int) Math.min(length, 2L * read));
+                in.readFully(bytes, read, bytes.length - read);
+            }
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    };
+
+    /**
+     * codec, for targets which may be null, at the cost of a byte each.
+     */
+    public static <R> PatchCodec<R> nullable(PatchCodec<R> codec) {
+        return new PatchCodec<R>() {
+            @Override
+            public void write(DataOutput out, R r) throws IOException {
+                out.writeBoolean(r != null);
+                if (r != null) {
+                    codec.write(out, r);
+                }
+            }
+
+            @Override
+            public R read(DataInput in) throws IOException {
+                return in.readBoolean() ? codec.read(in) : null;
+            }
+        };
+    }
+
+    /**
+     * codec, for Optional targets such as those of Lenses.at.
+     */
+    public static <R> PatchCodec<Optional<R>> optional(PatchCodec<R> codec) {
+        return new PatchCodec<Optional<R>>() {
+            @Override
+            public void write(DataOutput out, Optional<R> r) throws IOException {
+                out.writeBoolean(r.isPresent());
+                if (r.isPresent()) {
+                    codec.write(out, r.get());
+                }
+            }
+
+            @Override
+            public Optional<R> read(DataInput in) throws IOException {
+                return in.readBoolean() ? Optional.of(codec.read(in)) : Optional.empty();
+            }
+        };
+    }
+}
@@ -0,0 +1,139 @@
+package org.bruceeddy;
+
+import java.util.Arrays;
+
+/**
+ * Records the changes made through its lenses and shutters as a Patch, as they're made, so there's no need to diff
+ * old and new values afterwards.  Updates which change nothing record nothing, and a change to a path replaces
+ * any earlier change to the same path.  The optics it hands out must be applied to whole Vs, not composed under
+ * other lenses.  Not thread safe.
+ */
+public final class PatchRecorder<V> {
+
+    private final PatchSchema<V> schema;
+    private int[] ids = new int[8];
+    private Object[] values = new Object[8];
+    private int size;
+    private int superseded;
+
+    /**
+     * The index in ids of the latest change to each path, or -1.
+     */
+    private final int[] latest;
+
+    PatchRecorder(PatchSchema<V> schema) {
+        this.schema = schema;
+        this.latest = new int[schema.size()];
+        Arrays.fill(latest, -1);
+    }
+
+    /**
+     * lens, recording each change made through it.
+     *
+     * @throws IllegalArgumentException if lens isn't in the schema
+     */
+    public <R> Lens<V, R> recording(Lens<V, R> lens) {
+        PatchSchema.Path<V, ?> path = schema.pathOf(lens);
+        return new AbstractLens<V, R>() {
+            @Override
+            public R get(V v) {
+                return lens.get(v);
+            }
+
+            @Override
+            public V set(V v, R r) {
+                V set = lens.set(v, r);
+                if (set != v) {
+                    record(path.id, r);
+                }
+                return set;
+            }
+        };
+    }
+
+    /**
+     * shutter, recording each change made through it.
+     *
+     * @throws IllegalArgumentException if shutter isn't in the schema
+     */
+    public <R> Shutter<V, R> recording(Shutter<V, R> shutter) {
+        PatchSchema.Path<V, ?> path = schema.pathOf(shutter);
+        return new AbstractShutter<V, R>() {
+            @Override
+            public R getOrNull(V v) {
+                return shutter.getOrNull(v);
+            }
+
+            @Override
+            public V setOptional(V v, R r) {
+                V set = shutter.setOptional(v, r);
+                if (set != v) {
+                    record(path.id, r);
+                }
+                return set;
+            }
+        };
+    }
+
+    public boolean isEmpty() {
+        return size == superseded;
+    }
+
+    /**
+     * The changes recorded since the last drain, which are then forgotten.
+     */
+    public Patch<V> drain() {
+        int n = size - superseded;
+        int[] is = new int[n];
+        Object[] vs = new Object[n];
+        int j = 0;
+        for (int i = 0; i < size; i++) {
+            if (ids[i] >= 0) {
+                latest[ids[i]] = -1;
+                is[j] = ids[i];
+                vs[j++] = values[i];
+            }
+        }
+        Arrays.fill(values, 0, size, null);
+        size = 0;
+        superseded = 0;
+        return new Patch<>(schema, is, vs);
+    }
+
+    private void record(int id, Object r) {
+        int previous = latest[id];
+        if (previous >= 0) {
+            ids[previous] = -1;
+            values[previous] = null;
+            superseded++;
+        }
+        if (size == ids.length) {
+            if (superseded >= size / 2) {
+                compact();
+            } else {
+                ids = Arrays.copyOf(ids, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+        }
+        ids[size] = id;
+        values[size] = r;
+        latest[id] = size++;
+    }
+
+    /**
+     * Drops superseded changes, so that updating one path over and over doesn't grow the record.
+     */
+    private void compact() {
+        int j = 0;
+        for (int i = 0; i < size; i++) {
+            if (ids[i] >= 0) {
+                latest[ids[i]] = j;
+                ids[j] = ids[i];
+                values[j++] = values[i];
+            }
+        }
+        Arrays.fill(values, j, size, null);
+        size = j;
+        superseded = 0;
+    }
+}
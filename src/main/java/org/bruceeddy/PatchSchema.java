@@ -0,0 +1,198 @@
+package org.bruceeddy;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The lenses and shutters into a V which patches may change, each under an id and with a codec for its targets.
+ * Both ends of a replication share a schema: the writer records patches through it, and the reader decodes them
+ * with it and applies them to its copy.  Ids are small, non-negative and index an array, so keep them dense.
+ */
+public final class PatchSchema<V> {
+
+    private final List<Path<V, ?>> paths;
+    private final Map<Object, Path<V, ?>> byOptic;
+
+    private PatchSchema(List<Path<V, ?>> paths, Map<Object, Path<V, ?>> byOptic) {
+        this.paths = paths;
+        this.byOptic = byOptic;
+    }
+
+    public static <V> Builder<V> builder() {
+        return new Builder<>();
+    }
+
+    public PatchRecorder<V> recorder() {
+        return new PatchRecorder<>(this);
+    }
+
+    /**
+     * The patch encoded in bytes by Patch.encode.
+     *
+     * @throws IllegalArgumentException if bytes hold an id this schema doesn't have, a count or length which can't
+     *                                  be right, or anything after the last change, or end too soon
+     */
+    public Patch<V> decode(byte[] bytes) {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        try {
+            int n = readVarInt(in);
+            // each change takes at least a byte, for its id
+            if (n < 0 || n > in.available()) {
+                throw new IllegalArgumentException("Patch of " + n + " changes in " + bytes.length + " bytes");
+            }
+            int[] ids = new int[n];
+            Object[] values = new Object[n];
+            for (int i = 0; i < n; i++) {
+                ids[i] = readVarInt(in);
+                values[i] = path(ids[i]).codec.read(in);
+            }
+            if (in.available() > 0) {
+                throw new IllegalArgumentException(in.available() + " bytes after the end of the patch");
+            }
+            return new Patch<>(this, ids, values);
+        } catch (EOFException e) {
+            throw new IllegalArgumentException("Truncated patch", e);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed patch", e);
+        }
+    }
+
+    /**
+     * Decodes bytes and applies them to v.
+     */
+    public V apply(V v, byte[] bytes) {
+        return decode(bytes).apply(v);
+    }
+
+    /**
+     * One more than the greatest id.
+     */
+    int size() {
+        return paths.size();
+    }
+
+    Path<V, ?> path(int id) {
+        Path<V, ?> p = id >= 0 && id < paths.size() ? paths.get(id) : null;
+        if (p == null) {
+            throw new IllegalArgumentException("No path with id " + id);
+        }
+        return p;
+    }
+
+    Path<V, ?> pathOf(Object optic) {
+        Path<V, ?> p = byOptic.get(optic);
+        if (p == null) {
+            throw new IllegalArgumentException("Optic not in schema: " + optic);
+        }
+        return p;
+    }
+
+    static void writeVarInt(DataOutput out, int i) throws IOException {
+        while ((i & ~0x7F) != 0) {
+            out.writeByte((i & 0x7F) | 0x80);
+            i >>>= 7;
+        }
+        out.writeByte(i);
+    }
+
+    static int readVarInt(DataInput in) throws IOException {
+        int i = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = in.readByte();
+            i |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return i;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    public static final class Builder<V> {
+
+        private final List<Path<V, ?>> paths = new ArrayList<>();
+        private final Map<Object, Path<V, ?>> byOptic = new IdentityHashMap<>();
+
+        private Builder() {
+        }
+
+        /**
+         * @throws IllegalArgumentException if id is negative or taken, or lens is already in the schema
+         */
+        public <R> Builder<V> lens(int id, Lens<V, R> lens, PatchCodec<R> codec) {
+            return add(new Path<>(id, lens, null, codec));
+        }
+
+        /**
+         * @throws IllegalArgumentException if id is negative or taken, or shutter is already in the schema
+         */
+        public <R> Builder<V> shutter(int id, Shutter<V, R> shutter, PatchCodec<R> codec) {
+            return add(new Path<>(id, null, shutter, codec));
+        }
+
+        public PatchSchema<V> build() {
+            return new PatchSchema<>(new ArrayList<>(paths), new IdentityHashMap<>(byOptic));
+        }
+
+        private Builder<V> add(Path<V, ?> p) {
+            if (p.id < 0) {
+                throw new IllegalArgumentException("Negative id " + p.id);
+            }
+            if (p.id >= paths.size()) {
+                paths.addAll(Collections.nCopies(p.id + 1 - paths.size(), null));
+            }
+            if (paths.get(p.id) != null) {
+                throw new IllegalArgumentException("Id " + p.id + " already taken");
+            }
+            Object optic = p.lens != null ? p.lens : p.shutter;
+            if (byOptic.containsKey(optic)) {
+                throw new IllegalArgumentException("Optic already in schema: " + optic);
+            }
+            paths.set(p.id, p);
+            byOptic.put(optic, p);
+            return this;
+        }
+    }
+
+    /**
+     * One lens or shutter of the schema.
+     */
+    static final class Path<V, R> {
+        final int id;
+        final Lens<V, R> lens;
+        final Shutter<V, R> shutter;
+        final PatchCodec<R> codec;
+
+        Path(int id, Lens<V, R> lens, Shutter<V, R> shutter, PatchCodec<R> codec) {
+            this.id = id;
+            this.lens = lens;
+            this.shutter = shutter;
+            this.codec = codec;
+        }
+
+        /**
+         * Sets v's target to r, which must be one of this path's Rs: one this path's codec read, or recorded
+         * through its optic.
+         */
+        @SuppressWarnings("unchecked")
+        V set(V v, Object r) {
+            return lens != null ? lens.set(v, (R) r) : shutter.setOptional(v, (R) r);
+        }
+
+        /**
+         * As set, r must be one of this path's Rs.
+         */
+        @SuppressWarnings("unchecked")
+        void write(DataOutput out, Object r) throws IOException {
+            codec.write(out, (R) r);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package org.bruceeddy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * An immutable indexed sequence, as a 32-way trie.  A set or append copies only the O(log32 n) nodes on the path
+ * to its index and shares the rest with the original.  Like List.of, it takes no null elements.
+ */
+public final class PersistentVector<E> implements Iterable<E> {
+
+    private static final PersistentVector<?> EMPTY = new PersistentVector<>(0, 0, new Object[0]);
+
+    private final int size;
+    private final int shift;
+    private final Object[] root;
+
+    private PersistentVector(int size, int shift, Object[] root) {
+        this.size = size;
+        this.shift = shift;
+        this.root = root;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <E> PersistentVector<E> empty() {
+        return (PersistentVector<E>) EMPTY;
+    }
+
+    @SafeVarargs
+    public static <E> PersistentVector<E> of(E... es) {
+        PersistentVector<E> v = empty();
+        for (E e : es) {
+            v = v.append(e);
+        }
+        return v;
+    }
+
+    public static <E> PersistentVector<E> from(Collection<? extends E> es) {
+        PersistentVector<E> v = empty();
+        for (E e : es) {
+            v = v.append(e);
+        }
+        return v;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public E get(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("Index " + i + " out of bounds for size " + size);
+        }
+        Object[] node = root;
+        for (int level = shift; level > 0; level -= 5) {
+            node = (Object[]) node[(i >>> level) & 31];
+        }
+        return (E) node[i & 31];
+    }
+
+    /**
+     * This vector with e at i.  If e is already there, the vector itself.
+     */
+    public PersistentVector<E> set(int i, E e) {
+        Objects.requireNonNull(e, "element");
+        return get(i) == e ? this : new PersistentVector<>(size, shift, set(shift, root, i, e));
+    }
+
+    public PersistentVector<E> append(E e) {
+        Objects.requireNonNull(e, "element");
+        if (size == 1 << (shift + 5)) {
+            return new PersistentVector<>(size + 1, shift + 5, new Object[]{root, path(shift, e)});
+        }
+        return new PersistentVector<>(size + 1, shift, append(shift, root, size, e));
+    }
+
+    public List<E> toList() {
+        List<E> es = new ArrayList<>(size);
+        for (E e : this) {
+            es.add(e);
+        }
+        return es;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+            private int i;
+
+            @Override
+            public boolean hasNext() {
+                return i < size;
+            }
+
+            @Override
+            public E next() {
+                if (i >= size) {
+                    throw new NoSuchElementException();
+                }
+                return get(i++);
+            }
+        };
+    }
+
+    private static Object[] set(int level, Object[] node, int i, Object e) {
+        Object[] copy = node.clone();
+        int slot = (i >>> level) & 31;
+        copy[slot] = level == 0 ? e : set(level - 5, (Object[]) node[slot], i, e);
+        return copy;
+    }
+
+    private static Object[] append(int level, Object[] node, int i, Object e) {
+        int slot = (i >>> level) & 31;
+        Object[] copy = Arrays.copyOf(node, Math.max(node.length, slot + 1));
+        if (level == 0) {
+            copy[slot] = e;
+        } else {
+            copy[slot] = slot < node.length ? append(level - 5, (Object[]) node[slot], i, e) : path(level - 5, e);
+        }
+        return copy;
+    }
+
+    private static Object[] path(int level, Object e) {
+        return level == 0 ? new Object[]{e} : new Object[]{path(level - 5, e)};
+    }
+}
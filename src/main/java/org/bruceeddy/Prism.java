@@ -0,0 +1,53 @@
+package org.bruceeddy;
+
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * An optic onto one case of a sum type, e.g. the Circles among Shapes.  Unlike a Shutter, a Prism can build a
+ * whole S from just its target, with reverseGet.  Targets are never null: null means no match.
+ */
+public interface Prism<S, A> {
+
+    /**
+     * The target of s, or null if s isn't the case this prism matches.
+     */
+    A getOrNull(S s);
+
+    S reverseGet(A a);
+
+    default Optional<A> getOptional(S s) {
+        return Optional.ofNullable(getOrNull(s));
+    }
+
+    /**
+     * reverseGet(a) if s matches, otherwise s itself.
+     */
+    S set(S s, A a);
+
+    /**
+     * The modified s if s matches, otherwise s itself.
+     */
+    S modify(S s, UnaryOperator<A> f);
+
+    default Function<S, S> modify(Function<A, A> f) {
+        UnaryOperator<A> op = f::apply;
+        return s -> modify(s, op);
+    }
+
+    default Optional<S> modifyOptional(S s, UnaryOperator<A> f) {
+        A a = getOrNull(s);
+        return a == null ? Optional.empty() : Optional.of(reverseGet(f.apply(a)));
+    }
+
+    <B> Prism<S, B> andThen(Prism<A, B> prism);
+
+    <B> Shutter<S, B> andThen(Lens<A, B> lens);
+
+    <B> Shutter<S, B> andThen(Shutter<A, B> shutter);
+
+    <U> Shutter<U, A> compose(Lens<U, S> lens);
+
+    Shutter<S, A> asShutter();
+}
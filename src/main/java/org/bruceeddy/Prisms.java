@@ -0,0 +1,44 @@
+package org.bruceeddy;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+public class Prisms {
+
+    public static <S, A> Prism<S, A> gen(Function<S, Optional<A>> getOptional, Function<A, S> reverseGet) {
+        return new AbstractPrism<S, A>() {
+            @Override
+            public A getOrNull(S s) {
+                return getOptional.apply(s).orElse(null);
+            }
+
+            @Override
+            public S reverseGet(A a) {
+                return reverseGet.apply(a);
+            }
+
+            @Override
+            public Optional<A> getOptional(S s) {
+                return getOptional.apply(s);
+            }
+        };
+    }
+
+    /**
+     * The subtype A of S.  Matching is a plain instanceof check, so a modify of a non-matching S allocates
+     * nothing - no Optional - and hands back the S as it is.
+     */
+    public static <S, A extends S> Prism<S, A> instanceOf(Class<A> type) {
+        return new AbstractPrism<S, A>() {
+            @Override
+            public A getOrNull(S s) {
+                return type.isInstance(s) ? type.cast(s) : null;
+            }
+
+            @Override
+            public S reverseGet(A a) {
+                return a;
+            }
+        };
+    }
+}
@@ -0,0 +1,602 @@
+package org.bruceeddy;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.IntUnaryOperator;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * A file of fixed-layout records, memory mapped, and read and written in place through the Layout's field lenses.
+ * Nothing is loaded at open, and files may be bigger than the heap: the file is mapped in segments of up to a
+ * gigabyte, each holding whole pages of whole records, and the operating system pages it in as it's touched.
+ * Numbers are big-endian.
+ * <p>
+ * In Mode.IN_PLACE writes go straight to the mapping.  In Mode.COPY_ON_WRITE snapshots can be taken too: the first
+ * write to a page after a snapshot copies the page to the heap for it first, so snapshots see the file as it was
+ * when they were taken, and cost nothing for pages never written.  Writes which leave a field as it was don't
+ * count.  Either way, readers of the file itself may see
+ * other threads' writes half done; only snapshot reads are consistent.
+ * <p>
+ * Random access makes a view of the mapping per call.  forEach and modifyAll make one per segment, and when
+ * parallel split the file across a ForkJoinPool in runs of whole pages.
+ */
+public final class RecordFile implements Closeable {
+
+    public enum Mode { IN_PLACE, COPY_ON_WRITE }
+
+    private static final int MAX_SEGMENT_BYTES = 1 << 30;
+    private static final int PAGE_BYTES = 4096;
+    private static final long MIN_CHUNK = 1 << 12;
+    private static final int LOCK_STRIPES = 64;
+
+    private final Mapping mapping;
+    private final ForkJoinPool pool;
+
+    private RecordFile(Mapping mapping, ForkJoinPool pool) {
+        this.mapping = mapping;
+        this.pool = pool;
+    }
+
+    /**
+     * Opens path, creating it or growing it to hold records records if it's smaller.
+     */
+    public static RecordFile create(Path path, Layout layout, long records, Mode mode) throws IOException {
+        return create(path, layout, records, mode, MAX_SEGMENT_BYTES);
+    }
+
+    /**
+     * Opens the existing file at path, of as many whole records as it holds.
+     */
+    public static RecordFile open(Path path, Layout layout, Mode mode) throws IOException {
+        return map(path, layout, 0, mode, MAX_SEGMENT_BYTES, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    static RecordFile create(Path path, Layout layout, long records, Mode mode, int maxSegmentBytes) throws IOException {
+        return map(path, layout, records, mode, maxSegmentBytes,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    private static RecordFile map(Path path, Layout layout, long records, Mode mode, int maxSegmentBytes,
+                                  OpenOption... options) throws IOException {
+        FileChannel channel = FileChannel.open(path, options);
+        try {
+            long bytes = records * layout.size();
+            if (channel.size() < bytes) {
+                channel.write(ByteBuffer.allocate(1), bytes - 1);
+            }
+            return new RecordFile(new Mapping(channel, layout, channel.size() / layout.size(), mode, maxSegmentBytes), null);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * This file, with forEach and modifyAll split across the common ForkJoinPool.
+     */
+    public RecordFile parallel() {
+        return parallel(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * This file, with forEach and modifyAll split across pool.  Closing either closes both.
+     */
+    public RecordFile parallel(ForkJoinPool pool) {
+        return new RecordFile(mapping, pool);
+    }
+
+    public Layout layout() {
+        return mapping.layout;
+    }
+
+    /**
+     * The number of records.
+     */
+    public long size() {
+        return mapping.records;
+    }
+
+    public int get(long i, IntLens<ByteBuffer> field) {
+        return field.get(mapping.at(i));
+    }
+
+    public long get(long i, LongLens<ByteBuffer> field) {
+        return field.get(mapping.at(i));
+    }
+
+    public double get(long i, DoubleLens<ByteBuffer> field) {
+        return field.get(mapping.at(i));
+    }
+
+    public void set(long i, IntLens<ByteBuffer> field, int r) {
+        modify(i, field, old -> r);
+    }
+
+    public void set(long i, LongLens<ByteBuffer> field, long r) {
+        modify(i, field, old -> r);
+    }
+
+    public void set(long i, DoubleLens<ByteBuffer> field, double r) {
+        modify(i, field, old -> r);
+    }
+
+    /**
+     * @return the target after the update
+     */
+    public int modify(long i, IntLens<ByteBuffer> field, IntUnaryOperator f) {
+        ByteBuffer b = mapping.at(i);
+        long stamp = mapping.beginWrite(i);
+        try {
+            int old = field.get(b);
+            int m = f.applyAsInt(old);
+            if (m != old) {
+                mapping.preserve(i / mapping.recordsPerPage);
+                field.set(b, m);
+            }
+            return m;
+        } finally {
+            mapping.endWrite(i, stamp);
+        }
+    }
+
+    public long modify(long i, LongLens<ByteBuffer> field, LongUnaryOperator f) {
+        ByteBuffer b = mapping.at(i);
+        long stamp = mapping.beginWrite(i);
+        try {
+            long old = field.get(b);
+            long m = f.applyAsLong(old);
+            if (m != old) {
+                mapping.preserve(i / mapping.recordsPerPage);
+                field.set(b, m);
+            }
+            return m;
+        } finally {
+            mapping.endWrite(i, stamp);
+        }
+    }
+
+    public double modify(long i, DoubleLens<ByteBuffer> field, DoubleUnaryOperator f) {
+        ByteBuffer b = mapping.at(i);
+        long stamp = mapping.beginWrite(i);
+        try {
+            double old = field.get(b);
+            double m = f.applyAsDouble(old);
+            if (Double.doubleToRawLongBits(m) != Double.doubleToRawLongBits(old)) {
+                mapping.preserve(i / mapping.recordsPerPage);
+                field.set(b, m);
+            }
+            return m;
+        } finally {
+            mapping.endWrite(i, stamp);
+        }
+    }
+
+    /**
+     * Hands action a buffer positioned at each record, for reading.  Write through modifyAll instead, which keeps
+     * snapshots intact.  When parallel, action is called from several threads, each with its own buffer, and
+     * records are visited in no particular order.
+     */
+    public void forEach(Consumer<ByteBuffer> action) {
+        scan((b, page) -> action.accept(b), false);
+    }
+
+    public void modifyAll(IntLens<ByteBuffer> field, IntUnaryOperator f) {
+        scan((b, page) -> {
+            int old = field.get(b);
+            int m = f.applyAsInt(old);
+            if (m != old) {
+                mapping.preserve(page);
+                field.set(b, m);
+            }
+        }, true);
+    }
+
+    public void modifyAll(LongLens<ByteBuffer> field, LongUnaryOperator f) {
+        scan((b, page) -> {
+            long old = field.get(b);
+            long m = f.applyAsLong(old);
+            if (m != old) {
+                mapping.preserve(page);
+                field.set(b, m);
+            }
+        }, true);
+    }
+
+    public void modifyAll(DoubleLens<ByteBuffer> field, DoubleUnaryOperator f) {
+        scan((b, page) -> {
+            double old = field.get(b);
+            double m = f.applyAsDouble(old);
+            if (Double.doubleToRawLongBits(m) != Double.doubleToRawLongBits(old)) {
+                mapping.preserve(page);
+                field.set(b, m);
+            }
+        }, true);
+    }
+
+    /**
+     * The file as it is now, for as long as the snapshot is open.
+     *
+     * @throws IllegalStateException if this file isn't COPY_ON_WRITE
+     */
+    public Snapshot snapshot() {
+        return mapping.snapshot();
+    }
+
+    /**
+     * Writes changes through to the file.
+     */
+    public void force() {
+        for (MappedByteBuffer segment : mapping.segments) {
+            segment.force();
+        }
+    }
+
+    /**
+     * Forces changes to the file and closes it.  The mapping itself goes when it's garbage collected, as Java 8
+     * can't unmap a file, so nothing may use this file afterwards.
+     */
+    @Override
+    public void close() throws IOException {
+        force();
+        mapping.channel.close();
+    }
+
+    private void scan(Visitor action, boolean writes) {
+        long records = mapping.records;
+        long threshold = pool == null
+                ? Long.MAX_VALUE
+                : Math.max(records / (pool.getParallelism() * 4L), Math.max(MIN_CHUNK, mapping.recordsPerPage));
+        if (threshold >= records) {
+            mapping.scan(0, records, action, writes);
+        } else {
+            pool.invoke(new ScanTask(mapping, 0, records, action, writes, threshold));
+        }
+    }
+
+    /**
+     * The file as it was when taken.  Records are read as copies, consistent even while the file is being written.
+     * Close it as soon as it's done with, since until then every write to a page it hasn't copied yet copies it.
+     */
+    public static final class Snapshot implements Closeable {
+
+        private final Mapping mapping;
+        private final long epoch;
+        private final Map<Long, ByteBuffer> pages = new ConcurrentHashMap<>();
+
+        private Snapshot(Mapping mapping, long epoch) {
+            this.mapping = mapping;
+            this.epoch = epoch;
+        }
+
+        /**
+         * A copy of record i as it was when the snapshot was taken, positioned at 0.
+         */
+        public ByteBuffer record(long i) {
+            return mapping.read(this, i);
+        }
+
+        public int get(long i, IntLens<ByteBuffer> field) {
+            return field.get(record(i));
+        }
+
+        public long get(long i, LongLens<ByteBuffer> field) {
+            return field.get(record(i));
+        }
+
+        public double get(long i, DoubleLens<ByteBuffer> field) {
+            return field.get(record(i));
+        }
+
+        @Override
+        public void close() {
+            mapping.release(this);
+            pages.clear();
+        }
+    }
+
+    /**
+     * Visits the record b is positioned at, on page.  Writers call Mapping.preserve(page) before changing it.
+     */
+    private interface Visitor {
+        void visit(ByteBuffer b, long page);
+    }
+
+    /**
+     * The mapped segments and the bookkeeping of copy on write, shared by a file and its parallel views.
+     */
+    private static final class Mapping {
+
+        final FileChannel channel;
+        final Layout layout;
+        final long records;
+        final int recordSize;
+        final int recordsPerPage;
+        final long segmentRecords;
+        final MappedByteBuffer[] segments;
+        final boolean copyOnWrite;
+
+        /**
+         * Locks striped over pages, page p's being p % locks.length, so that neighbouring pages - such as those a
+         * parallel scan's tasks are writing - have different ones.  Held while writing a page and, all of them,
+         * while taking or closing a snapshot, and validated by snapshot reads of the page.  Only used when copying
+         * on write.
+         */
+        final StampedLock[] locks;
+
+        /**
+         * The epoch at which each page was last written, or copied for the snapshots before it.
+         */
+        final long[] pageEpochs;
+        final List<Snapshot> snapshots = new CopyOnWriteArrayList<>();
+        volatile long epoch;
+
+        Mapping(FileChannel channel, Layout layout, long records, Mode mode, int maxSegmentBytes) throws IOException {
+            this.channel = channel;
+            this.layout = layout;
+            this.records = records;
+            this.recordSize = layout.size();
+            this.recordsPerPage = Math.max(1, PAGE_BYTES / recordSize);
+            long pagesPerSegment = Math.max(1, maxSegmentBytes / ((long) recordsPerPage * recordSize));
+            this.segmentRecords = pagesPerSegment * recordsPerPage;
+            int n = (int) ((records + segmentRecords - 1) / segmentRecords);
+            List<MappedByteBuffer> mapped = new ArrayList<>(n);
+            for (long from = 0; from < records; from += segmentRecords) {
+                long bytes = Math.min(segmentRecords, records - from) * recordSize;
+                mapped.add(channel.map(FileChannel.MapMode.READ_WRITE, from * recordSize, bytes));
+            }
+            this.segments = mapped.toArray(new MappedByteBuffer[n]);
+            this.copyOnWrite = mode == Mode.COPY_ON_WRITE;
+            this.pageEpochs = new long[copyOnWrite ? (int) ((records + recordsPerPage - 1) / recordsPerPage) : 0];
+            this.locks = new StampedLock[Math.min(LOCK_STRIPES, pageEpochs.length)];
+            for (int i = 0; i < locks.length; i++) {
+                locks[i] = new StampedLock();
+            }
+        }
+
+        /**
+         * A view of the mapping positioned at record i.
+         */
+        ByteBuffer at(long i) {
+            if (i < 0 || i >= records) {
+                throw new IndexOutOfBoundsException("Record " + i + " of " + records);
+            }
+            ByteBuffer b = segments[segment(i)].duplicate();
+            b.position(offsetInSegment(i));
+            return b;
+        }
+
+        /**
+         * Locks record i's page, if copying on write.  The writer then calls preserve if, and only if, it's
+         * about to change something.
+         */
+        long beginWrite(long i) {
+            return copyOnWrite ? lockOf(i / recordsPerPage).writeLock() : 0;
+        }
+
+        void endWrite(long i, long stamp) {
+            if (copyOnWrite) {
+                lockOf(i / recordsPerPage).unlockWrite(stamp);
+            }
+        }
+
+        /**
+         * Visits records from (inclusive) to to (exclusive) with one view per segment, and when writing with copy
+         * on write, locks a page at a time.
+         */
+        void scan(long from, long to, Visitor action, boolean writes) {
+            long i = from;
+            while (i < to) {
+                int s = segment(i);
+                ByteBuffer b = segments[s].duplicate();
+                long end = Math.min(to, (s + 1) * segmentRecords);
+                if (writes && copyOnWrite) {
+                    while (i < end) {
+                        long page = i / recordsPerPage;
+                        long pageEnd = Math.min(end, (page + 1) * recordsPerPage);
+                        StampedLock lock = lockOf(page);
+                        long stamp = lock.writeLock();
+                        try {
+                            i = visit(b, i, pageEnd, action);
+                        } finally {
+                            lock.unlockWrite(stamp);
+                        }
+                    }
+                } else {
+                    i = visit(b, i, end, action);
+                }
+            }
+        }
+
+        private long visit(ByteBuffer b, long from, long to, Visitor action) {
+            for (long i = from; i < to; i++) {
+                b.position(offsetInSegment(i));
+                action.visit(b, i / recordsPerPage);
+            }
+            return to;
+        }
+
+        Snapshot snapshot() {
+            if (!copyOnWrite) {
+                throw new IllegalStateException("Snapshots need Mode.COPY_ON_WRITE");
+            }
+            long[] stamps = lockAll();
+            try {
+                Snapshot s = new Snapshot(this, epoch + 1);
+                snapshots.add(s);
+                epoch = s.epoch;
+                return s;
+            } finally {
+                unlockAll(stamps);
+            }
+        }
+
+        /**
+         * Stops preserving pages for snapshot.  Under every lock, like taking it, so no preserve still running can
+         * copy a page into it afterwards.
+         */
+        void release(Snapshot snapshot) {
+            long[] stamps = lockAll();
+            try {
+                snapshots.remove(snapshot);
+            } finally {
+                unlockAll(stamps);
+            }
+        }
+
+        private long[] lockAll() {
+            long[] stamps = new long[locks.length];
+            for (int i = 0; i < locks.length; i++) {
+                stamps[i] = locks[i].writeLock();
+            }
+            return stamps;
+        }
+
+        private void unlockAll(long[] stamps) {
+            for (int i = locks.length - 1; i >= 0; i--) {
+                locks[i].unlockWrite(stamps[i]);
+            }
+        }
+
+        /**
+         * Before page is first written after some snapshots were taken, copies it for them.  They all saw the same
+         * page, so share the copy.  Called holding the page's lock, and only for writes which change something.
+         */
+        void preserve(long page) {
+            if (!copyOnWrite) {
+                return;
+            }
+            int p = (int) page;
+            long current = epoch;
+            if (pageEpochs[p] == current) {
+                return;
+            }
+            ByteBuffer copy = null;
+            for (Snapshot s : snapshots) {
+                if (s.epoch > pageEpochs[p]) {
+                    if (copy == null) {
+                        copy = copyOf(page);
+                    }
+                    s.pages.putIfAbsent(page, copy);
+                }
+            }
+            pageEpochs[p] = current;
+        }
+
+        private ByteBuffer copyOf(long page) {
+            long first = page * recordsPerPage;
+            ByteBuffer live = segments[segment(first)].duplicate();
+            live.position(offsetInSegment(first));
+            live.limit(live.position() + (int) Math.min(recordsPerPage, records - first) * recordSize);
+            ByteBuffer copy = ByteBuffer.allocate(live.remaining());
+            copy.put(live);
+            return copy;
+        }
+
+        /**
+         * Record i as snapshot saw it: from its copy of the page if the page has been written since, or else from
+         * the mapping, validating that no write to the page overlapped the read.
+         */
+        ByteBuffer read(Snapshot snapshot, long i) {
+            if (i < 0 || i >= records) {
+                throw new IndexOutOfBoundsException("Record " + i + " of " + records);
+            }
+            ByteBuffer record = ByteBuffer.allocate(recordSize);
+            StampedLock lock = lockOf(i / recordsPerPage);
+            long stamp = lock.tryOptimisticRead();
+            if (stamp != 0) {
+                copyRecord(snapshot, i, record);
+                if (lock.validate(stamp)) {
+                    record.flip();
+                    return record;
+                }
+                record.clear();
+            }
+            stamp = lock.readLock();
+            try {
+                copyRecord(snapshot, i, record);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+            record.flip();
+            return record;
+        }
+
+        private void copyRecord(Snapshot snapshot, long i, ByteBuffer record) {
+            ByteBuffer page = snapshot.pages.get(i / recordsPerPage);
+            ByteBuffer from;
+            if (page != null) {
+                from = page.duplicate();
+                from.position((int) (i % recordsPerPage) * recordSize);
+            } else {
+                from = segments[segment(i)].duplicate();
+                from.position(offsetInSegment(i));
+            }
+            from.limit(from.position() + recordSize);
+            record.put(from);
+        }
+
+        private StampedLock lockOf(long page) {
+            return locks[(int) (page % locks.length)];
+        }
+
+        private int segment(long i) {
+            return (int) (i / segmentRecords);
+        }
+
+        private int offsetInSegment(long i) {
+            return (int) (i % segmentRecords) * recordSize;
+        }
+    }
+
+    private static class ScanTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Mapping mapping;
+        private final long from;
+        private final long to;
+        private final Visitor action;
+        private final boolean writes;
+        private final long threshold;
+
+        ScanTask(Mapping mapping, long from, long to, Visitor action, boolean writes, long threshold) {
+            this.mapping = mapping;
+            this.from = from;
+            this.to = to;
+            this.action = action;
+            this.writes = writes;
+            this.threshold = threshold;
+        }
+
+        /**
+         * Splits on page boundaries, so that no page is written by two tasks.
+         */
+        @Override
+        protected void compute() {
+            long pages = (to - from + mapping.recordsPerPage - 1) / mapping.recordsPerPage;
+            if (to - from <= threshold || pages < 2) {
+                mapping.scan(from, to, action, writes);
+                return;
+            }
+            long mid = from + pages / 2 * mapping.recordsPerPage;
+            invokeAll(new ScanTask(mapping, from, mid, action, writes, threshold),
+                    new ScanTask(mapping, mid, to, action, writes, threshold));
+        }
+    }
+}
@@ -0,0 +1,346 @@
+package org.bruceeddy;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+
+/**
+ * A concurrent in-memory store of immutable values by key, updated through lenses.
+ * <p>
+ * Keys are spread over shards, each holding a PersistentMap which is replaced, never changed.  Reads are a
+ * volatile read of the shard's map and a lookup in it, so they never wait.  Writes are queued on their shard and
+ * applied by a single writer at a time, in batches: whichever writing thread finds the shard idle applies one batch
+ * of its queue to a private copy of the map and publishes it, then hands any rest of the queue on to an executor,
+ * a batch at a time, so no caller serves other threads' writes for long.  The futures writes return complete once
+ * their batch is published.
+ * <p>
+ * Every value carries a version, which changes whenever it does.  Transactions read versions optimistically and
+ * commit updates to several keys, in any shards, all or nothing, failing if anything they read has changed since.
+ * A key absent when read and absent at commit validates, even if it was added and removed in between.
+ */
+public final class ShardedStore<K, V> {
+
+    private static final int MAX_BATCH = 256;
+
+    private final List<Shard<K, V>> shards;
+    private final int mask;
+
+    public ShardedStore() {
+        this(Runtime.getRuntime().availableProcessors() * 4);
+    }
+
+    /**
+     * @param shards rounded up to a power of two
+     */
+    public ShardedStore(int shards) {
+        this(shards, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param shards rounded up to a power of two
+     * @param writer runs the batches of writes left queued once the writing thread has applied one
+     */
+    public ShardedStore(int shards, Executor writer) {
+        int n = shards <= 1 ? 1 : Integer.highestOneBit(shards - 1) << 1;
+        this.shards = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            this.shards.add(new Shard<>(writer));
+        }
+        this.mask = n - 1;
+    }
+
+    /**
+     * The value for key, or null if there is none.
+     */
+    public V get(K key) {
+        Entry<V> e = shardOf(key).state.get(key);
+        return e == null ? null : e.value;
+    }
+
+    /**
+     * The target of lens in the value for key, or null if there's no value.
+     */
+    public <R> R get(K key, Lens<V, R> lens) {
+        V v = get(key);
+        return v == null ? null : lens.get(v);
+    }
+
+    /**
+     * The version of the value for key, or 0 if there's no value.
+     */
+    public long version(K key) {
+        Entry<V> e = shardOf(key).state.get(key);
+        return e == null ? 0 : e.version;
+    }
+
+    public int size() {
+        int n = 0;
+        for (Shard<K, V> s : shards) {
+            n += s.state.size();
+        }
+        return n;
+    }
+
+    public CompletableFuture<V> put(K key, V value) {
+        return submit(key, v -> value);
+    }
+
+    public CompletableFuture<V> remove(K key) {
+        return submit(key, v -> null);
+    }
+
+    /**
+     * Replaces the value for key with f of it.  If there's no value, f isn't called and the future completes
+     * with null.
+     *
+     * @return the value after the update
+     */
+    public CompletableFuture<V> update(K key, UnaryOperator<V> f) {
+        return submit(key, present(f));
+    }
+
+    public <R> CompletableFuture<V> update(K key, Lens<V, R> lens, UnaryOperator<R> f) {
+        return update(key, v -> lens.modify(v, f));
+    }
+
+    public <R> CompletableFuture<V> update(K key, Shutter<V, R> shutter, UnaryOperator<R> f) {
+        return update(key, v -> shutter.modifyOrSame(v, f));
+    }
+
+    public Transaction begin() {
+        return new Transaction();
+    }
+
+    private CompletableFuture<V> submit(K key, UnaryOperator<V> f) {
+        Write<K, V> w = new Write<>(key, f);
+        shardOf(key).submit(w);
+        return w.result;
+    }
+
+    private Shard<K, V> shardOf(K key) {
+        return shards.get(indexOf(key));
+    }
+
+    private int indexOf(K key) {
+        int h = key.hashCode();
+        return (h ^ (h >>> 16) ^ (h >>> 8)) & mask;
+    }
+
+    private static <V> UnaryOperator<V> present(UnaryOperator<V> f) {
+        return v -> v == null ? null : f.apply(v);
+    }
+
+    /**
+     * A unit of optimistic work over several keys.  Reads note the version they saw; updates are buffered, and
+     * apply to the value current at commit.  Not thread safe.
+     */
+    public final class Transaction {
+
+        private final Map<K, Long> versions = new HashMap<>();
+        private final Map<K, UnaryOperator<V>> writes = new LinkedHashMap<>();
+
+        private Transaction() {
+        }
+
+        /**
+         * The value for key now, noting its version for commit to check.
+         */
+        public V get(K key) {
+            Entry<V> e = shardOf(key).state.get(key);
+            versions.putIfAbsent(key, e == null ? 0L : e.version);
+            return e == null ? null : e.value;
+        }
+
+        public <R> R get(K key, Lens<V, R> lens) {
+            V v = get(key);
+            return v == null ? null : lens.get(v);
+        }
+
+        public Transaction put(K key, V value) {
+            return write(key, v -> value);
+        }
+
+        /**
+         * As ShardedStore.update, and like get notes the version of key.
+         */
+        public Transaction update(K key, UnaryOperator<V> f) {
+            return write(key, present(f));
+        }
+
+        public <R> Transaction update(K key, Lens<V, R> lens, UnaryOperator<R> f) {
+            return update(key, v -> lens.modify(v, f));
+        }
+
+        /**
+         * Applies every update, all together, if none of the values read or updated has changed since.
+         *
+         * @return whether it did; if not, nothing was changed
+         */
+        public boolean commit() {
+            TreeSet<Integer> involved = new TreeSet<>();
+            for (K key : versions.keySet()) {
+                involved.add(indexOf(key));
+            }
+            List<Shard<K, V>> locked = new ArrayList<>(involved.size());
+            for (int i : involved) {
+                shards.get(i).lock();
+                locked.add(shards.get(i));
+            }
+            try {
+                for (Map.Entry<K, Long> read : versions.entrySet()) {
+                    if (version(read.getKey()) != read.getValue()) {
+                        return false;
+                    }
+                }
+                Map<Shard<K, V>, PersistentMap<K, Entry<V>>> next = new HashMap<>();
+                for (Map.Entry<K, UnaryOperator<V>> w : writes.entrySet()) {
+                    Shard<K, V> s = shardOf(w.getKey());
+                    next.put(s, s.apply(next.getOrDefault(s, s.state), w.getKey(), w.getValue()));
+                }
+                for (Map.Entry<Shard<K, V>, PersistentMap<K, Entry<V>>> n : next.entrySet()) {
+                    n.getKey().state = n.getValue();
+                }
+                return true;
+            } finally {
+                for (int i = locked.size() - 1; i >= 0; i--) {
+                    locked.get(i).unlock();
+                }
+            }
+        }
+
+        private Transaction write(K key, UnaryOperator<V> f) {
+            get(key);
+            UnaryOperator<V> before = writes.get(key);
+            writes.put(key, before == null ? f : v -> f.apply(before.apply(v)));
+            return this;
+        }
+    }
+
+    private static final class Entry<V> {
+        final V value;
+        final long version;
+
+        Entry(V value, long version) {
+            this.value = value;
+            this.version = version;
+        }
+    }
+
+    private static final class Write<K, V> {
+        final K key;
+        final UnaryOperator<V> f;
+        final CompletableFuture<V> result = new CompletableFuture<>();
+        V value;
+        RuntimeException failure;
+
+        Write(K key, UnaryOperator<V> f) {
+            this.key = key;
+            this.f = f;
+        }
+
+        void complete() {
+            if (failure == null) {
+                result.complete(value);
+            } else {
+                result.completeExceptionally(failure);
+            }
+        }
+    }
+
+    private static final class Shard<K, V> {
+
+        volatile PersistentMap<K, Entry<V>> state = PersistentMap.empty();
+
+        private final ConcurrentLinkedQueue<Write<K, V>> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean writing = new AtomicBoolean();
+        private final AtomicInteger locking = new AtomicInteger();
+        private final Executor writer;
+
+        /**
+         * Versions handed out by this shard, only ever touched by its writer.
+         */
+        private long clock;
+
+        Shard(Executor writer) {
+            this.writer = writer;
+        }
+
+        void submit(Write<K, V> w) {
+            queue.add(w);
+            drain();
+        }
+
+        /**
+         * Applies one batch of queued writes, unless the queue is empty, some other thread is the writer or a
+         * transaction is waiting to lock the shard, whose unlock drains in turn.  Rechecking the queue after
+         * letting go of the shard, and handing what's left to the executor, means a write queued just as the last
+         * writer finished is never stranded.
+         */
+        void drain() {
+            if (queue.isEmpty() || locking.get() > 0 || !writing.compareAndSet(false, true)) {
+                return;
+            }
+            List<Write<K, V>> batch = new ArrayList<>();
+            try {
+                PersistentMap<K, Entry<V>> s = state;
+                Write<K, V> w;
+                while (batch.size() < MAX_BATCH && (w = queue.poll()) != null) {
+                    batch.add(w);
+                    try {
+                        s = apply(s, w.key, w.f);
+                        Entry<V> e = s.get(w.key);
+                        w.value = e == null ? null : e.value;
+                    } catch (RuntimeException e) {
+                        w.failure = e;
+                    }
+                }
+                state = s;
+            } finally {
+                writing.set(false);
+            }
+            if (!queue.isEmpty()) {
+                writer.execute(this::drain);
+            }
+            for (Write<K, V> w : batch) {
+                w.complete();
+            }
+        }
+
+        /**
+         * Takes the shard from its writer, which starts no new batch while a lock is wanted, so that transactions
+         * wait for at most the batch in progress.
+         */
+        void lock() {
+            locking.incrementAndGet();
+            while (!writing.compareAndSet(false, true)) {
+                Thread.yield();
+            }
+            locking.decrementAndGet();
+        }
+
+        void unlock() {
+            writing.set(false);
+            drain();
+        }
+
+        PersistentMap<K, Entry<V>> apply(PersistentMap<K, Entry<V>> s, K key, UnaryOperator<V> f) {
+            Entry<V> e = s.get(key);
+            V old = e == null ? null : e.value;
+            V next = f.apply(old);
+            if (next == old) {
+                return s;
+            }
+            return next == null ? s.remove(key) : s.put(key, new Entry<>(next, ++clock));
+        }
+    }
+}
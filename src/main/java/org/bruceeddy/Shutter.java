@@ -1,18 +1,90 @@
 package org.bruceeddy;
 
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.function.Function;
+import java.util.function.UnaryOperator;
 
 public interface Shutter<V,R> {
 
-    Optional<R> getOptional(V v);
+    /**
+     * The target of v, or null if v has none.  This and modifyOrSame are the allocation free core which the
+     * Optional methods are built on.
+     */
+    R getOrNull(V v);
 
-    Function<V,V> setOptional(R xs);
+    default Optional<R> getOptional(V v) {
+        return Optional.ofNullable(getOrNull(v));
+    }
 
-    boolean nonEmpty(V xs);
+    /**
+     * Sets the target of v to r, if v has a target, without building an intermediate Function.
+     */
+    V setOptional(V v, R r);
 
-    Function<V,V> modify(Function<R,R> f);
+    /**
+     * Modifies the target of v with f, handing back v itself if it has no target or f returns the very same one.
+     */
+    V modifyOrSame(V v, UnaryOperator<R> f);
 
-    Function<V,Optional<V>> modifyOptional(Function<R,R> f);
+    /**
+     * Modifies the target of v with f, if v has a target, without building an intermediate Function.
+     */
+    default V modify(V v, UnaryOperator<R> f) {
+        return modifyOrSame(v, f);
+    }
+
+    default Function<V,V> setOptional(R xs) {
+        return v -> setOptional(v, xs);
+    }
+
+    /**
+     * Note this is true when v has no target.
+     */
+    default boolean nonEmpty(V v) {
+        return getOrNull(v) == null;
+    }
+
+    default Function<V,V> modify(Function<R,R> f) {
+        UnaryOperator<R> op = f::apply;
+        return v -> modify(v, op);
+    }
+
+    default Function<V,Optional<V>> modifyOptional(Function<R,R> f) {
+        return v -> {
+            R r = getOrNull(v);
+            return r == null ? Optional.empty() : Optional.of(setOptional(v, f.apply(r)));
+        };
+    }
+
+    /**
+     * Modifies the target, if any, of each of vs with f, in one presized pass.  Elements with no target, or where
+     * f returns the very same target, are kept rather than rebuilt.
+     */
+    default List<V> modifyAll(List<V> vs, UnaryOperator<R> f) {
+        List<V> modified = new ArrayList<>(vs.size());
+        for (V v : vs) {
+            modified.add(modifyOrSame(v, f));
+        }
+        return modified;
+    }
+
+    /**
+     * As modifyAll(List, UnaryOperator), for an array.  vs itself is left untouched.
+     */
+    default V[] modifyAll(V[] vs, UnaryOperator<R> f) {
+        V[] modified = vs.clone();
+        for (int i = 0; i < vs.length; i++) {
+            modified[i] = modifyOrSame(vs[i], f);
+        }
+        return modified;
+    }
+
+    <U> Shutter<U,R> compose(Lens<U,V> lens);
+
+    <B> Shutter<V,B> andThen(Lens<R,B> lens);
+
+    <B> Shutter<V,B> andThen(Shutter<R,B> shutter);
 }
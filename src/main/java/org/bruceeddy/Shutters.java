@@ -4,37 +4,66 @@ import java.util.Optional;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 
-import static org.bruceeddy.Curry.curry;
-
 public class Shutters {
 
     public static <V, R> Shutter<V, R> gen(Function<V, Optional<R>> getter, BiFunction<R, V, V> setter) {
-        return new Shutter<V, R>() {
+        return new AbstractShutter<V, R>() {
 
             @Override
-            public Optional<R> getOptional(V v) {
-                return getter.apply(v);
+            public R getOrNull(V v) {
+                return getter.apply(v).orElse(null);
             }
 
             @Override
-            public Function<V, V> setOptional(R v) {
-                return curry(setter).apply(v);
+            public Optional<R> getOptional(V v) {
+                return getter.apply(v);
             }
 
             @Override
-            public boolean nonEmpty(V v) {
-                return getOptional(v).map(x -> false).orElse(true);
+            public V setOptional(V v, R r) {
+                return setter.apply(r, v);
             }
+        };
+    }
+
+    /**
+     * As gen, but with a getter returning null for no target, so that nothing on the get, modify or nonEmpty
+     * paths allocates an Optional.
+     */
+    public static <V, R> Shutter<V, R> ofNullable(Function<V, R> getter, BiFunction<R, V, V> setter) {
+        return new AbstractShutter<V, R>() {
 
             @Override
-            public Function<V, V> modify(Function<R, R> f) {
-                return v -> modifyOptional(f).apply(v).orElse(v);
+            public R getOrNull(V v) {
+                return getter.apply(v);
             }
 
             @Override
-            public Function<V, Optional<V>> modifyOptional(Function<R, R> f) {
-                return v -> getOptional(v).map(f).map(r -> setOptional(r)).map(h -> h.apply(v));
+            public V setOptional(V v, R r) {
+                return setter.apply(r, v);
             }
         };
     }
+
+    /**
+     * shutter, reporting each get, set and modify to Instrumentation's OpticMetrics under name, if instrumentation
+     * is on.  If it's off, shutter itself.
+     */
+    public static <V, R> Shutter<V, R> instrumented(String name, Shutter<V, R> shutter) {
+        return Instrumentation.wrap(name, shutter);
+    }
+
+    /**
+     * A shutter onto the value for key, which is only there if the map has key.  Setting never adds key.
+     */
+    public static <K, V> Shutter<PersistentMap<K, V>, V> at(K key) {
+        return ofNullable(m -> m.get(key), (v, m) -> m.containsKey(key) ? m.put(key, v) : m);
+    }
+
+    /**
+     * A shutter onto element i, which is only there if i is in bounds.
+     */
+    public static <E> Shutter<PersistentVector<E>, E> index(int i) {
+        return ofNullable(es -> i >= 0 && i < es.size() ? es.get(i) : null, (e, es) -> i >= 0 && i < es.size() ? es.set(i, e) : es);
+    }
 }
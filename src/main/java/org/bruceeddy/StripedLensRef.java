@@ -0,0 +1,210 @@
+package org.bruceeddy;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * A LensRef split into one cell per stripe lens, so that writers to different stripes never contend.  The stripes
+ * must be independent - no two onto overlapping parts of the value - and every lens updated through this must be a
+ * stripe or composed onto one.  The whole value is put back together from the stripes, which isn't atomic across
+ * them.
+ */
+public final class StripedLensRef<V> {
+
+    private final Stripe[] stripes;
+    private final AtomicReference<Assembled> assembled;
+
+    public StripedLensRef(V initial, List<? extends Lens<V, ?>> stripes) {
+        this.stripes = new Stripe[stripes.size()];
+        Object[] parts = new Object[this.stripes.length];
+        for (int i = 0; i < this.stripes.length; i++) {
+            this.stripes[i] = new Stripe(Lenses.path(stripes.get(i)), initial);
+            parts[i] = this.stripes[i].cell.get();
+        }
+        this.assembled = new AtomicReference<>(new Assembled(initial, parts));
+    }
+
+    /**
+     * The whole value, with each stripe as it was when read.  Only the stripes changed since the last get are set.
+     */
+    @SuppressWarnings("unchecked")
+    public V get() {
+        Assembled a = assembled.get();
+        Object v = a.value;
+        Object[] parts = null;
+        for (int i = 0; i < stripes.length; i++) {
+            Object part = stripes[i].cell.get();
+            if (part != a.parts[i]) {
+                if (parts == null) {
+                    parts = a.parts.clone();
+                }
+                parts[i] = part;
+                v = Lenses.setChanged(stripes[i].lens, v, part);
+            }
+        }
+        if (parts != null) {
+            assembled.compareAndSet(a, new Assembled(v, parts));
+        }
+        return (V) v;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <R> R get(Lens<V, R> lens) {
+        Lens<Object, Object>[] path = Lenses.path(lens);
+        Stripe s = stripeOf(path);
+        return (R) s.rest(path).get(s.cell.get());
+    }
+
+    /**
+     * @return the value after the update
+     */
+    public <R> V set(Lens<V, R> lens, R r) {
+        Lens<Object, Object>[] path = Lenses.path(lens);
+        Stripe s = stripeOf(path);
+        s.cell.set(s.rest(path), r);
+        return peek();
+    }
+
+    /**
+     * @return the value after the update
+     */
+    @SuppressWarnings("unchecked")
+    public <R> V modify(Lens<V, R> lens, UnaryOperator<R> f) {
+        Lens<Object, Object>[] path = Lenses.path(lens);
+        Stripe s = stripeOf(path);
+        s.cell.modify(s.rest(path), (UnaryOperator<Object>) f);
+        return peek();
+    }
+
+    /**
+     * The shutter must be composed onto a stripe, or onto a lens composed onto one.
+     *
+     * @return the value after the update, which is the value before it if there was no target
+     */
+    @SuppressWarnings("unchecked")
+    public <R> V modify(Shutter<V, R> shutter, UnaryOperator<R> f) {
+        if (!(shutter instanceof AbstractShutter.Composed)) {
+            throw new IllegalArgumentException("Shutter isn't composed onto any stripe");
+        }
+        AbstractShutter.Composed<V, Object, R> composed = (AbstractShutter.Composed<V, Object, R>) shutter;
+        Lens<Object, Object>[] path = Lenses.path(composed.lens);
+        Stripe s = stripeOf(path);
+        Lens<Object, Object> rest = s.rest(path);
+        s.cell.update(t -> {
+            Object v = rest.get(t);
+            Object m = composed.inner.modifyOrSame(v, f);
+            return m == v ? t : Lenses.setChanged(rest, t, m);
+        });
+        return peek();
+    }
+
+    /**
+     * As modify, but giving up after maxAttempts lost races on the lens's stripe.
+     *
+     * @return the value after the update, or empty if it gave up
+     */
+    @SuppressWarnings("unchecked")
+    public <R> Optional<V> tryModify(Lens<V, R> lens, UnaryOperator<R> f, int maxAttempts) {
+        Lens<Object, Object>[] path = Lenses.path(lens);
+        Stripe s = stripeOf(path);
+        return s.cell.tryModify(s.rest(path), (UnaryOperator<Object>) f, maxAttempts).map(t -> peek());
+    }
+
+    public long retries() {
+        long n = 0;
+        for (Stripe s : stripes) {
+            n += s.cell.retries();
+        }
+        return n;
+    }
+
+    public long skipped() {
+        long n = 0;
+        for (Stripe s : stripes) {
+            n += s.cell.skipped();
+        }
+        return n;
+    }
+
+    public long failures() {
+        long n = 0;
+        for (Stripe s : stripes) {
+            n += s.cell.failures();
+        }
+        return n;
+    }
+
+    /**
+     * As get, but without publishing what it puts together, so that writers to different stripes don't contend on
+     * the assembled value.
+     */
+    @SuppressWarnings("unchecked")
+    private V peek() {
+        Assembled a = assembled.get();
+        Object v = a.value;
+        for (int i = 0; i < stripes.length; i++) {
+            Object part = stripes[i].cell.get();
+            if (part != a.parts[i]) {
+                v = Lenses.setChanged(stripes[i].lens, v, part);
+            }
+        }
+        return (V) v;
+    }
+
+    private Stripe stripeOf(Lens<Object, Object>[] path) {
+        for (Stripe s : stripes) {
+            if (s.prefixOf(path)) {
+                return s;
+            }
+        }
+        throw new IllegalArgumentException("Lens isn't composed onto any stripe");
+    }
+
+    private static final Lens<Object, Object> IDENTITY = Lenses.gen(v -> v, (r, v) -> r);
+
+    private static final class Stripe {
+        final Lens<Object, Object>[] path;
+        final Lens<Object, Object> lens;
+        final LensRef<Object> cell;
+
+        Stripe(Lens<Object, Object>[] path, Object initial) {
+            this.path = path;
+            this.lens = Lenses.ofPath(path, 0);
+            this.cell = new LensRef<>(lens.get(initial));
+        }
+
+        boolean prefixOf(Lens<Object, Object>[] p) {
+            if (p.length < path.length) {
+                return false;
+            }
+            for (int i = 0; i < path.length; i++) {
+                if (p[i] != path[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * The lens from this stripe's target on to the end of p: the identity if p is the stripe itself.
+         */
+        Lens<Object, Object> rest(Lens<Object, Object>[] p) {
+            return p.length == path.length ? IDENTITY : Lenses.ofPath(p, path.length);
+        }
+    }
+
+    /**
+     * The whole value as last put together, and the stripe targets it was put together from.
+     */
+    private static final class Assembled {
+        final Object value;
+        final Object[] parts;
+
+        Assembled(Object value, Object[] parts) {
+            this.value = value;
+            this.parts = parts;
+        }
+    }
+}
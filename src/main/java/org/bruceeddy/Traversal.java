@@ -0,0 +1,92 @@
+package org.bruceeddy;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+/**
+ * An optic with any number of targets, e.g. every element of a list.
+ */
+public interface Traversal<S, A> {
+
+    List<A> getAll(S s);
+
+    /**
+     * The targets of s, lazily: nothing is got until the stream is consumed, and short-circuiting operations stop
+     * at the first target they need.
+     */
+    Stream<A> stream(S s);
+
+    S modify(S s, UnaryOperator<A> f);
+
+    /**
+     * Maps each target with f and combines the results, in order, with combine - zero and combine being a monoid.
+     */
+    <M> M foldMap(S s, Function<? super A, ? extends M> f, M zero, BinaryOperator<M> combine);
+
+    /**
+     * Modifies every target with f in whichever applicative ap is, combining the results in order.  Through
+     * Applicatives.identity() this is modify, and through Applicatives.constant(..) it is foldMap.
+     */
+    <F> F traverse(Applicative<F> ap, S s, Function<A, F> f);
+
+    default S set(S s, A a) {
+        return modify(s, x -> a);
+    }
+
+    default Function<S, S> set(A a) {
+        return s -> set(s, a);
+    }
+
+    default Function<S, S> modify(Function<A, A> f) {
+        UnaryOperator<A> op = f::apply;
+        return s -> modify(s, op);
+    }
+
+    /**
+     * The first target of s matching p, getting no further targets once it's found.
+     */
+    default Optional<A> find(S s, Predicate<? super A> p) {
+        return stream(s).filter(p).findFirst();
+    }
+
+    default boolean exists(S s, Predicate<? super A> p) {
+        return stream(s).anyMatch(p);
+    }
+
+    default Optional<A> headOption(S s) {
+        return stream(s).findFirst();
+    }
+
+    /**
+     * This traversal, splitting large sources across the common ForkJoinPool for modify and foldMap.
+     */
+    default Traversal<S, A> parallel() {
+        return parallel(ForkJoinPool.commonPool());
+    }
+
+    Traversal<S, A> parallel(ForkJoinPool pool);
+
+    <U> Traversal<U, A> compose(Lens<U, S> comp);
+
+    <B> Traversal<S, B> andThen(Lens<A, B> lens);
+
+    /**
+     * The targets of shutter within each target of this traversal, skipping those with none.
+     */
+    default <B> Traversal<S, B> andThen(Shutter<A, B> shutter) {
+        return Traversals.andThen(this, shutter);
+    }
+
+    /**
+     * The targets of traversal within each target of this one, e.g. every element of every list in a list.
+     */
+    default <B> Traversal<S, B> andThen(Traversal<A, B> traversal) {
+        return Traversals.andThen(this, traversal);
+    }
+}
@@ -0,0 +1,711 @@
+package org.bruceeddy;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+public class Traversals {
+
+    /**
+     * Sources smaller than this are never split, however many cores there are.
+     */
+    static final int MIN_CHUNK = 1024;
+
+    /**
+     * Every element of a list.  modify returns a new, fixed-size, list.
+     */
+    public static <A> Traversal<List<A>, A> list() {
+        return new ListTraversal<>(null);
+    }
+
+    /**
+     * Every element of an array.  modify returns a new array of the same type.
+     */
+    public static <A> Traversal<A[], A> array() {
+        return new ArrayTraversal<>(null);
+    }
+
+    /**
+     * A traversal over whatever targets getAll finds, where setAll rebuilds the source from a list of new targets
+     * in the same order.
+     */
+    public static <S, A> Traversal<S, A> gen(Function<S, List<A>> getAll, BiFunction<List<A>, S, S> setAll) {
+        return new Generated<>(getAll, setAll, null);
+    }
+
+    /**
+     * A traversal over a stream of targets, where rebuild makes the source from a stream of new targets in the
+     * same order.  modify hands rebuild the stream of modified targets without collecting it first, so for instance
+     * rebuild can collect straight into the new source's own collection.  When parallel, the streams are parallel,
+     * run in the traversal's pool.
+     */
+    public static <S, A> Traversal<S, A> streaming(Function<S, Stream<A>> stream, BiFunction<Stream<A>, S, S> rebuild) {
+        return new Streaming<>(stream, rebuild, null);
+    }
+
+    static <S, A, B> Traversal<S, B> andThen(Traversal<S, A> traversal, Shutter<A, B> shutter) {
+        return new Shuttered<>(traversal, shutter);
+    }
+
+    static <S, A, B> Traversal<S, B> andThen(Traversal<S, A> outer, Traversal<A, B> inner) {
+        return new Nested<>(outer, inner);
+    }
+
+    private static abstract class Base<S, A> implements Traversal<S, A> {
+
+        /**
+         * null when sequential.
+         */
+        final ForkJoinPool pool;
+
+        Base(ForkJoinPool pool) {
+            this.pool = pool;
+        }
+
+        /**
+         * s, with its targets replaced by these, in order.
+         */
+        abstract S rebuild(S s, Object[] targets);
+
+        @Override
+        public <F> F traverse(Applicative<F> ap, S s, Function<A, F> f) {
+            List<A> targets = getAll(s);
+            F acc = ap.pure(Cons.EMPTY);
+            for (A a : targets) {
+                acc = ap.<Cons<A>, A, Cons<A>>map2(acc, f.apply(a), Cons::new);
+            }
+            return ap.<Cons<A>, S>map(acc, c -> rebuild(s, c.toArray(targets.size())));
+        }
+
+        @Override
+        public <U> Traversal<U, A> compose(Lens<U, S> comp) {
+            return new Composed<>(comp, this);
+        }
+
+        @Override
+        public <B> Traversal<S, B> andThen(Lens<A, B> lens) {
+            return new Focused<>(this, lens);
+        }
+    }
+
+    private static class ListTraversal<A> extends Base<List<A>, A> {
+
+        ListTraversal(ForkJoinPool pool) {
+            super(pool);
+        }
+
+        @Override
+        public List<A> getAll(List<A> s) {
+            return new ArrayList<>(s);
+        }
+
+        @Override
+        public Stream<A> stream(List<A> s) {
+            return s.stream();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public List<A> modify(List<A> s, UnaryOperator<A> f) {
+            Object[] modified = new Object[s.size()];
+            map(s.spliterator(), modified, f, pool);
+            return unchanged(s, modified) ? s : (List<A>) Arrays.asList(modified);
+        }
+
+        @Override
+        public <M> M foldMap(List<A> s, Function<? super A, ? extends M> f, M zero, BinaryOperator<M> combine) {
+            return fold(s.spliterator(), s.size(), f, zero, combine, pool);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        List<A> rebuild(List<A> s, Object[] targets) {
+            return (List<A>) Arrays.asList(targets);
+        }
+
+        @Override
+        public Traversal<List<A>, A> parallel(ForkJoinPool pool) {
+            return new ListTraversal<>(pool);
+        }
+    }
+
+    private static class ArrayTraversal<A> extends Base<A[], A> {
+
+        ArrayTraversal(ForkJoinPool pool) {
+            super(pool);
+        }
+
+        @Override
+        public List<A> getAll(A[] s) {
+            return new ArrayList<>(Arrays.asList(s));
+        }
+
+        @Override
+        public Stream<A> stream(A[] s) {
+            return Arrays.stream(s);
+        }
+
+        @Override
+        public A[] modify(A[] s, UnaryOperator<A> f) {
+            @SuppressWarnings("unchecked")
+            A[] modified = (A[]) Array.newInstance(s.getClass().getComponentType(), s.length);
+            map(Spliterators.spliterator(s, Spliterator.ORDERED), modified, f, pool);
+            return modified;
+        }
+
+        @Override
+        public <M> M foldMap(A[] s, Function<? super A, ? extends M> f, M zero, BinaryOperator<M> combine) {
+            return fold(Spliterators.spliterator(s, Spliterator.ORDERED), s.length, f, zero, combine, pool);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        A[] rebuild(A[] s, Object[] targets) {
+            A[] rebuilt = (A[]) Array.newInstance(s.getClass().getComponentType(), targets.length);
+            System.arraycopy(targets, 0, rebuilt, 0, targets.length);
+            return rebuilt;
+        }
+
+        @Override
+        public Traversal<A[], A> parallel(ForkJoinPool pool) {
+            return new ArrayTraversal<>(pool);
+        }
+    }
+
+    private static class Generated<S, A> extends Base<S, A> {
+
+        private final Function<S, List<A>> getAll;
+        private final BiFunction<List<A>, S, S> setAll;
+
+        Generated(Function<S, List<A>> getAll, BiFunction<List<A>, S, S> setAll, ForkJoinPool pool) {
+            super(pool);
+            this.getAll = getAll;
+            this.setAll = setAll;
+        }
+
+        @Override
+        public List<A> getAll(S s) {
+            return getAll.apply(s);
+        }
+
+        @Override
+        public Stream<A> stream(S s) {
+            return getAll.apply(s).stream();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public S modify(S s, UnaryOperator<A> f) {
+            List<A> targets = getAll.apply(s);
+            Object[] modified = new Object[targets.size()];
+            map(targets.spliterator(), modified, f, pool);
+            return unchanged(targets, modified) ? s : setAll.apply((List<A>) Arrays.asList(modified), s);
+        }
+
+        @Override
+        public <M> M foldMap(S s, Function<? super A, ? extends M> f, M zero, BinaryOperator<M> combine) {
+            List<A> targets = getAll.apply(s);
+            return fold(targets.spliterator(), targets.size(), f, zero, combine, pool);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        S rebuild(S s, Object[] targets) {
+            return setAll.apply((List<A>) Arrays.asList(targets), s);
+        }
+
+        @Override
+        public Traversal<S, A> parallel(ForkJoinPool pool) {
+            return new Generated<>(getAll, setAll, pool);
+        }
+    }
+
+    private static class Composed<U, S, A> implements Traversal<U, A> {
+
+        private final Lens<U, S> outer;
+        private final Traversal<S, A> inner;
+
+        Composed(Lens<U, S> outer, Traversal<S, A> inner) {
+            this.outer = outer;
+            this.inner = inner;
+        }
+
+        @Override
+        public List<A> getAll(U u) {
+            return inner.getAll(outer.get(u));
+        }
+
+        @Override
+        public Stream<A> stream(U u) {
+            return inner.stream(outer.get(u));
+        }
+
+        @Override
+        public U modify(U u, UnaryOperator<A> f) {
+            return outer.set(u, inner.modify(outer.get(u), f));
+        }
+
+        @Override
+        public <M> M foldMap(U u, Function<? super A, ? extends M> f, M zero, BinaryOperator<M> combine) {
+            return inner.foldMap(outer.get(u), f, zero, combine);
+        }
+
+        @Override
+        public <F> F traverse(Applicative<F> ap, U u, Function<A, F> f) {
+            return ap.<S, U>map(inner.traverse(ap, outer.get(u), f), s -> outer.set(u, s));
+        }
+
+        @Override
+        public Traversal<U, A> parallel(ForkJoinPool pool) {
+            return new Composed<>(outer, inner.parallel(pool));
+        }
+
+        @Override
+        public <U1> Traversal<U1, A> compose(Lens<U1, U> comp) {
+            return new Composed<>(outer.compose(comp), inner);
+        }
+
+        @Override
+        public <B> Traversal<U, B> andThen(Lens<A, B> lens) {
+            return new Composed<>(outer, inner.andThen(lens));
+        }
+
+        @Override
+        public <B> Traversal<U, B> andThen(Shutter<A, B> shutter) {
+            return new Composed<>(outer, inner.andThen(shutter));
+        }
+
+        @Override
+        public <B> Traversal<U, B> andThen(Traversal<A, B> traversal) {
+            return new Composed<>(outer, inner.andThen(traversal));
+        }
+    }
+
+    private static class Focused<S, A, B> implements Traversal<S, B> {
+
+        private final Traversal<S, A> traversal;
+        private final Lens<A, B> lens;
+
+        Focused(Traversal<S, A> traversal, Lens<A, B> lens) {
+            this.traversal = traversal;
+            this.lens = lens;
+        }
+
+        @Override
+        public List<B> getAll(S s) {
+            List<A> all = traversal.getAll(s);
+            List<B> focused = new ArrayList<>(all.size());
+            for (A a : all) {
+                focused.add(lens.get(a));
+            }
+            return focused;
+        }
+
+        @Override
+        public Stream<B> stream(S s) {
+            return traversal.stream(s).map(lens::get);
+        }
+
+        @Override
+        public S modify(S s, UnaryOperator<B> f) {
+            return traversal.modify(s, a -> lens.modify(a, f));
+        }
+
+        @Override
+        public <M> M foldMap(S s, Function<? super B, ? extends M> f, M zero, BinaryOperator<M> combine) {
+            return traversal.foldMap(s, a -> f.apply(lens.get(a)), zero, combine);
+        }
+
+        @Override
+        public <F> F traverse(Applicative<F> ap, S s, Function<B, F> f) {
+            return traversal.traverse(ap, s, a -> lens.modifyF(ap, a, f));
+        }
+
+        @Override
+        public Traversal<S, B> parallel(ForkJoinPool pool) {
+            return new Focused<>(traversal.parallel(pool), lens);
+        }
+
+        @Override
+        public <U> Traversal<U, B> compose(Lens<U, S> comp) {
+            return new Focused<>(traversal.compose(comp), lens);
+        }
+
+        @Override
+        public <C> Traversal<S, C> andThen(Lens<B, C> next) {
+            return new Focused<>(traversal, next.compose(lens));
+        }
+
+        @Override
+        public <C> Traversal<S, C> andThen(Shutter<B, C> shutter) {
+            return new Shuttered<>(traversal, shutter.compose(lens));
+        }
+    }
+
+    private static class Shuttered<S, A, B> implements Traversal<S, B> {
+
+        private final Traversal<S, A> traversal;
+        private final Shutter<A, B> shutter;
+
+        Shuttered(Traversal<S, A> traversal, Shutter<A, B> shutter) {
+            this.traversal = traversal;
+            this.shutter = shutter;
+        }
+
+        @Override
+        public List<B> getAll(S s) {
+            return stream(s).collect(Collectors.toList());
+        }
+
+        @Override
+        public Stream<B> stream(S s) {
+            return traversal.stream(s).map(shutter::getOrNull).filter(Objects::nonNull);
+        }
+
+        @Override
+        public S modify(S s, UnaryOperator<B> f) {
+            return traversal.modify(s, a -> shutter.modifyOrSame(a, f));
+        }
+
+        @Override
+        public <M> M foldMap(S s, Function<? super B, ? extends M> f, M zero, BinaryOperator<M> combine) {
+            return traversal.foldMap(s, a -> {
+                B b = shutter.getOrNull(a);
+                return b == null ? zero : f.apply(b);
+            }, zero, combine);
+        }
+
+        @Override
+        public <F> F traverse(Applicative<F> ap, S s, Function<B, F> f) {
+            return traversal.traverse(ap, s, a -> {
+                B b = shutter.getOrNull(a);
+                return b == null ? ap.pure(a) : ap.<B, A>map(f.apply(b), m -> shutter.setOptional(a, m));
+            });
+        }
+
+        @Override
+        public Traversal<S, B> parallel(ForkJoinPool pool) {
+            return new Shuttered<>(traversal.parallel(pool), shutter);
+        }
+
+        @Override
+        public <U> Traversal<U, B> compose(Lens<U, S> comp) {
+            return new Shuttered<>(traversal.compose(comp), shutter);
+        }
+
+        @Override
+        public <C> Traversal<S, C> andThen(Lens<B, C> lens) {
+            return new Shuttered<>(traversal, shutter.andThen(lens));
+        }
+
+        @Override
+        public <C> Traversal<S, C> andThen(Shutter<B, C> next) {
+            return new Shuttered<>(traversal, shutter.andThen(next));
+        }
+    }
+
+    private static class Nested<S, A, B> implements Traversal<S, B> {
+
+        private final Traversal<S, A> outer;
+        private final Traversal<A, B> inner;
+
+        Nested(Traversal<S, A> outer, Traversal<A, B> inner) {
+            this.outer = outer;
+            this.inner = inner;
+        }
+
+        @Override
+        public List<B> getAll(S s) {
+            return stream(s).collect(Collectors.toList());
+        }
+
+        /**
+         * Flattened by hand rather than with flatMap, which before Java 10 reads each inner stream to its end even
+         * when the outer one is short-circuiting.
+         */
+        @Override
+        public Stream<B> stream(S s) {
+            Iterator<A> as = outer.stream(s).iterator();
+            Iterator<B> flattened = new Iterator<B>() {
+                private Iterator<B> bs = Collections.emptyIterator();
+
+                @Override
+                public boolean hasNext() {
+                    while (!bs.hasNext() && as.hasNext()) {
+                        bs = inner.stream(as.next()).iterator();
+                    }
+                    return bs.hasNext();
+                }
+
+                @Override
+                public B next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return bs.next();
+                }
+            };
+            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(flattened, Spliterator.ORDERED), false);
+        }
+
+        @Override
+        public S modify(S s, UnaryOperator<B> f) {
+            return outer.modify(s, a -> inner.modify(a, f));
+        }
+
+        @Override
+        public <M> M foldMap(S s, Function<? super B, ? extends M> f, M zero, BinaryOperator<M> combine) {
+            return outer.foldMap(s, a -> inner.foldMap(a, f, zero, combine), zero, combine);
+        }
+
+        @Override
+        public <F> F traverse(Applicative<F> ap, S s, Function<B, F> f) {
+            return outer.traverse(ap, s, a -> inner.traverse(ap, a, f));
+        }
+
+        @Override
+        public Traversal<S, B> parallel(ForkJoinPool pool) {
+            return new Nested<>(outer.parallel(pool), inner);
+        }
+
+        @Override
+        public <U> Traversal<U, B> compose(Lens<U, S> comp) {
+            return new Nested<>(outer.compose(comp), inner);
+        }
+
+        @Override
+        public <C> Traversal<S, C> andThen(Lens<B, C> lens) {
+            return new Nested<>(outer, inner.andThen(lens));
+        }
+
+        @Override
+        public <C> Traversal<S, C> andThen(Shutter<B, C> shutter) {
+            return new Nested<>(outer, inner.andThen(shutter));
+        }
+    }
+
+    private static class Streaming<S, A> extends Base<S, A> {
+
+        private final Function<S, Stream<A>> stream;
+        private final BiFunction<Stream<A>, S, S> rebuild;
+
+        Streaming(Function<S, Stream<A>> stream, BiFunction<Stream<A>, S, S> rebuild, ForkJoinPool pool) {
+            super(pool);
+            this.stream = stream;
+            this.rebuild = rebuild;
+        }
+
+        @Override
+        public List<A> getAll(S s) {
+            return stream.apply(s).collect(Collectors.toList());
+        }
+
+        @Override
+        public Stream<A> stream(S s) {
+            return stream.apply(s);
+        }
+
+        @Override
+        public S modify(S s, UnaryOperator<A> f) {
+            if (pool == null) {
+                return rebuild.apply(stream.apply(s).map(f), s);
+            }
+            return pool.submit(() -> rebuild.apply(stream.apply(s).parallel().map(f), s)).join();
+        }
+
+        @Override
+        public <M> M foldMap(S s, Function<? super A, ? extends M> f, M zero, BinaryOperator<M> combine) {
+            if (pool == null) {
+                return stream.apply(s).<M>map(f).reduce(zero, combine);
+            }
+            return pool.submit(() -> stream.apply(s).parallel().<M>map(f).reduce(zero, combine)).join();
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        S rebuild(S s, Object[] targets) {
+            return rebuild.apply((Stream<A>) Arrays.stream(targets), s);
+        }
+
+        @Override
+        public Traversal<S, A> parallel(ForkJoinPool pool) {
+            return new Streaming<>(stream, rebuild, pool);
+        }
+    }
+
+    /**
+     * An immutable list, built back to front, in which traverse accumulates new targets.  It has to be immutable,
+     * since an applicative such as List's may share one accumulation between several results.
+     */
+    private static class Cons<A> {
+        static final Cons<Object> EMPTY = new Cons<>(null, null);
+
+        final Cons<A> tail;
+        final A head;
+
+        Cons(Cons<A> tail, A head) {
+            this.tail = tail;
+            this.head = head;
+        }
+
+        Object[] toArray(int size) {
+            Object[] array = new Object[size];
+            Cons<A> c = this;
+            for (int i = size - 1; i >= 0; i--) {
+                array[i] = c.head;
+                c = c.tail;
+            }
+            return array;
+        }
+    }
+
+    /**
+     * Maps every element of source into mapped, which is exactly source's size, splitting across pool if it's
+     * non-null and source is big enough.  Each chunk writes its own slice of mapped.
+     */
+    static <A> void map(Spliterator<A> source, Object[] mapped, Function<? super A, ?> f, ForkJoinPool pool) {
+        long threshold = threshold(mapped.length, pool);
+        if (threshold >= mapped.length) {
+            int[] i = {0};
+            source.forEachRemaining(a -> mapped[i[0]++] = f.apply(a));
+        } else {
+            pool.invoke(new MapTask<>(subsized(source), 0, mapped, f, threshold));
+        }
+    }
+
+    /**
+     * Whether f gave back the very same object for every target, so that the source can be kept as it is.
+     */
+    private static boolean unchanged(List<?> targets, Object[] modified) {
+        int i = 0;
+        for (Object a : targets) {
+            if (a != modified[i++]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static <A, M> M fold(Spliterator<A> source, int size, Function<? super A, ? extends M> f, M zero, BinaryOperator<M> combine, ForkJoinPool pool) {
+        long threshold = threshold(size, pool);
+        return threshold >= size
+                ? foldSequentially(source, f, zero, combine)
+                : pool.invoke(new FoldTask<>(subsized(source), f, zero, combine, threshold));
+    }
+
+    private static long threshold(int size, ForkJoinPool pool) {
+        return pool == null
+                ? Long.MAX_VALUE
+                : Math.max(size / (pool.getParallelism() * 4L), MIN_CHUNK);
+    }
+
+    /**
+     * Splitting must give chunks of known size, so that each knows where its slice starts.
+     */
+    private static <A> Spliterator<A> subsized(Spliterator<A> source) {
+        if (source.hasCharacteristics(Spliterator.SUBSIZED)) {
+            return source;
+        }
+        List<A> copy = new ArrayList<>();
+        source.forEachRemaining(copy::add);
+        return copy.spliterator();
+    }
+
+    private static <A, M> M foldSequentially(Spliterator<A> source, Function<? super A, ? extends M> f, M zero, BinaryOperator<M> combine) {
+        Object[] acc = {zero};
+        source.forEachRemaining(a -> acc[0] = combine.apply(Traversals.<M>cast(acc[0]), f.apply(a)));
+        return cast(acc[0]);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <M> M cast(Object o) {
+        return (M) o;
+    }
+
+    private static class MapTask<A> extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Spliterator<A> source;
+        private final int offset;
+        private final Object[] mapped;
+        private final Function<? super A, ?> f;
+        private final long threshold;
+
+        MapTask(Spliterator<A> source, int offset, Object[] mapped, Function<? super A, ?> f, long threshold) {
+            this.source = source;
+            this.offset = offset;
+            this.mapped = mapped;
+            this.f = f;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            Spliterator<A> rest = source;
+            int start = offset;
+            List<MapTask<A>> forked = new ArrayList<>();
+            Spliterator<A> prefix;
+            while (rest.estimateSize() > threshold && (prefix = rest.trySplit()) != null) {
+                int size = (int) prefix.getExactSizeIfKnown();
+                MapTask<A> task = new MapTask<>(prefix, start, mapped, f, threshold);
+                task.fork();
+                forked.add(task);
+                start += size;
+            }
+            int[] i = {start};
+            rest.forEachRemaining(a -> mapped[i[0]++] = f.apply(a));
+            for (MapTask<A> task : forked) {
+                task.join();
+            }
+        }
+    }
+
+    private static class FoldTask<A, M> extends RecursiveTask<M> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Spliterator<A> source;
+        private final Function<? super A, ? extends M> f;
+        private final M zero;
+        private final BinaryOperator<M> combine;
+        private final long threshold;
+
+        FoldTask(Spliterator<A> source, Function<? super A, ? extends M> f, M zero, BinaryOperator<M> combine, long threshold) {
+            this.source = source;
+            this.f = f;
+            this.zero = zero;
+            this.combine = combine;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected M compute() {
+            Spliterator<A> prefix;
+            if (source.estimateSize() <= threshold || (prefix = source.trySplit()) == null) {
+                return foldSequentially(source, f, zero, combine);
+            }
+            FoldTask<A, M> left = new FoldTask<>(prefix, f, zero, combine, threshold);
+            left.fork();
+            M right = new FoldTask<>(source, f, zero, combine, threshold).compute();
+            return combine.apply(left.join(), right);
+        }
+    }
+}
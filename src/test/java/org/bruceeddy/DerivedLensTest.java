@@ -0,0 +1,95 @@
+package org.bruceeddy;
+
+import org.junit.Test;
+
+import static org.bruceeddy.LensTest.Address;
+import static org.bruceeddy.LensTest.Person;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class DerivedLensTest {
+
+    public static class Point {
+        private final int x;
+        private final int y;
+
+        public Point(int x, int y) {
+            this.x = x;
+            this.y = y;
+        }
+
+        public int x() {
+            return x;
+        }
+
+        public int y() {
+            return y;
+        }
+    }
+
+    static class Flipped {
+        final String name;
+        final int size;
+        final int weight;
+
+        Flipped(int weight, int size, String name) {
+            this.name = name;
+            this.size = size;
+            this.weight = weight;
+        }
+    }
+
+    private final Address anAddress = new Address(10, "The High Street");
+    private final Person aPerson = new Person("Joyo", 99, anAddress);
+
+    @Test
+    public void derivedLensShouldGetAndSetPackagePrivateField() {
+        Lens<Address, Integer> streetNumber = Lenses.derive(Address.class, "streetNumber");
+
+        assertThat(streetNumber.get(anAddress), is(10));
+        assertThat(streetNumber.set(anAddress, 20), is(new Address(20, "The High Street")));
+        assertThat(streetNumber.modify(x -> x + 1).apply(anAddress), is(new Address(11, "The High Street")));
+    }
+
+    @Test
+    public void derivedLensShouldGetThroughPublicAccessor() {
+        Lens<Point, Integer> y = Lenses.derive(Point.class, "y");
+        Point moved = y.modify(new Point(1, 2), v -> v + 10);
+
+        assertThat(y.get(new Point(1, 2)), is(2));
+        assertThat(moved.x(), is(1));
+        assertThat(moved.y(), is(12));
+    }
+
+    @Test
+    public void derivedLensesShouldCompose() {
+        Lens<Person, Address> address = Lenses.derive(Person.class, "address");
+        Lens<Address, String> streetName = Lenses.derive(Address.class, "streetName");
+
+        Person moved = streetName.compose(address).set(aPerson, "Low Road");
+
+        assertThat(moved, is(new Person("Joyo", 99, new Address(10, "Low Road"))));
+    }
+
+    @Test
+    public void derivedLensShouldMatchConstructorParametersByName() {
+        Lens<Flipped, Integer> size = Lenses.derive(Flipped.class, "size");
+
+        Flipped resized = size.set(new Flipped(1, 2, "box"), 3);
+
+        assertThat(resized.size, is(3));
+        assertThat(resized.weight, is(1));
+        assertThat(resized.name, is("box"));
+    }
+
+    @Test
+    public void derivedLensesShouldBeCached() {
+        assertThat(Lenses.derive(Address.class, "streetName"), is(sameInstance(Lenses.derive(Address.class, "streetName"))));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void deriveShouldRejectUnknownField() {
+        Lenses.derive(Address.class, "postcode");
+    }
+}
@@ -0,0 +1,103 @@
+package org.bruceeddy;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+
+import static java.util.Arrays.asList;
+import static org.bruceeddy.LensTest.Address;
+import static org.bruceeddy.LensTest.Person;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class FoldTest {
+
+    private final Lens<Person, Address> address = Lenses.gen(p -> p.address, (a, p) -> new Person(p.name, p.age, a));
+    private final IntLens<Address> streetNumber = IntLenses.gen(a -> a.streetNumber, (i, a) -> new Address(i, a.streetName));
+
+    private ForkJoinPool pool;
+    private List<Address> addresses;
+
+    @Before
+    public void createPoolAndAddresses() {
+        pool = new ForkJoinPool(4);
+        addresses = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            addresses.add(new Address(i % 1000, "The High Street"));
+        }
+    }
+
+    @After
+    public void shutdownPool() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void sumsShouldAddUpEveryTarget() {
+        Fold<List<Address>, Address> all = Folds.list();
+
+        assertThat(all.sumInt(addresses, a -> a.streetNumber), is(49_950_000));
+        assertThat(all.sumLong(addresses, a -> a.streetNumber), is(49_950_000L));
+        assertThat(all.sumDouble(addresses, a -> a.streetNumber / 2.0), is(closeTo(24_975_000, 1e-6)));
+        assertThat(all.sumInt(addresses, streetNumber), is(49_950_000));
+    }
+
+    @Test
+    public void parallelSumsShouldMatchSequentialOnes() {
+        Fold<List<Address>, Address> all = Folds.<Address>list().parallel(pool);
+
+        assertThat(all.sumInt(addresses, streetNumber), is(49_950_000));
+        assertThat(all.sumLong(addresses, a -> a.streetNumber), is(49_950_000L));
+        assertThat(all.foldMap(addresses.subList(0, 5_000), a -> String.valueOf(a.streetNumber % 10), "", String::concat),
+                is(Folds.<Address>list().foldMap(addresses.subList(0, 5_000), a -> String.valueOf(a.streetNumber % 10), "", String::concat)));
+    }
+
+    @Test
+    public void minAndMaxShouldPickTheFirstOfEqualTargets() {
+        Fold<List<Address>, Address> all = Folds.<Address>list().parallel(pool);
+        Comparator<Address> byNumber = Comparator.comparingInt(a -> a.streetNumber);
+
+        assertThat(all.min(addresses, byNumber).get(), sameInstance(addresses.get(0)));
+        assertThat(all.max(addresses, byNumber).get(), sameInstance(addresses.get(999)));
+        assertThat(all.max(Collections.emptyList(), byNumber), is(Optional.empty()));
+    }
+
+    @Test
+    public void countShouldCountTargets() {
+        Fold<List<List<Integer>>, Integer> nested = Folds.<List<Integer>>list().andThen(Folds.list());
+
+        assertThat(Folds.<Address>array().count(addresses.toArray(new Address[0])), is(100_000L));
+        assertThat(nested.count(asList(asList(1, 2), Collections.emptyList(), asList(3))), is(3L));
+        assertThat(nested.parallel(pool).count(asList(asList(1, 2), Collections.emptyList(), asList(3))), is(3L));
+    }
+
+    @Test
+    public void foldShouldComposeWithLensesAndTraversals() {
+        class Street {
+            final List<Person> residents;
+
+            Street(List<Person> residents) {
+                this.residents = residents;
+            }
+        }
+        Lens<Street, List<Person>> residents = Lenses.gen(s -> s.residents, (r, s) -> new Street(r));
+        Fold<Street, Address> addressesOf = Folds.<Person>list().andThen(address).compose(residents);
+        Fold<List<Street>, Address> allAddresses = Folds.<Street>list().andThen(addressesOf);
+        Street street = new Street(asList(
+                new Person("Joyo", 99, new Address(10, "The High Street")),
+                new Person("Bo", 9, new Address(12, "The High Street"))));
+
+        assertThat(addressesOf.sumInt(street, streetNumber), is(22));
+        assertThat(allAddresses.parallel(pool).sumInt(asList(street, street, street), streetNumber), is(66));
+        assertThat(Folds.of(Traversals.<Person>list().andThen(address)).sumInt(street.residents, streetNumber), is(22));
+    }
+}
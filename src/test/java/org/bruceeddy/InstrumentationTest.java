@@ -0,0 +1,103 @@
+package org.bruceeddy;
+
+import org.bruceeddy.OpticMetrics.Operation;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Optional;
+
+import static org.bruceeddy.LensTest.Address;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertThat;
+
+public class InstrumentationTest {
+
+    private final Lens<Address, Integer> streetNumber = Lenses.gen(a -> a.streetNumber, (i, a) -> new Address(i, a.streetName));
+    private final Address anAddress = new Address(10, "The High Street");
+
+    @After
+    public void disableInstrumentation() {
+        Instrumentation.disable();
+    }
+
+    @Test
+    public void instrumentedShouldBeTheLensItselfWhenDisabled() {
+        assertThat(Lenses.instrumented("streetNumber", streetNumber), sameInstance(streetNumber));
+    }
+
+    @Test
+    public void instrumentedLensShouldCountCallsAndUnchangedUpdates() {
+        OpticStats stats = new OpticStats();
+        Instrumentation.enable(stats);
+        Lens<Address, Integer> lens = Lenses.instrumented("streetNumber", streetNumber);
+
+        lens.get(anAddress);
+        lens.get(anAddress);
+        assertThat(lens.modify(anAddress, n -> n + 1).streetNumber, is(11));
+        assertThat(lens.modify(anAddress, n -> n), sameInstance(anAddress));
+        lens.set(anAddress, 10);
+
+        OpticStats.Stats s = stats.stats("streetNumber");
+        assertThat(s.calls(Operation.GET), is(2L));
+        assertThat(s.calls(Operation.MODIFY), is(2L));
+        assertThat(s.calls(Operation.SET), is(1L));
+        assertThat(s.unchangedRatio(), is(2.0 / 3));
+        assertThat(s.latency(Operation.GET).count(), is(2L));
+    }
+
+    @Test
+    public void instrumentedShutterShouldRecordThroughGivenMetrics() {
+        long[] calls = new long[Operation.values().length];
+        Instrumentation.enable((optic, operation, nanos, allocated, unchanged) -> calls[operation.ordinal()]++);
+        Shutter<Address, String> name = Shutters.instrumented("name",
+                Shutters.gen(a -> Optional.ofNullable(a.streetName), (n, a) -> new Address(a.streetNumber, n)));
+
+        name.getOptional(anAddress);
+        name.modify(anAddress, String::toUpperCase);
+
+        assertThat(calls[Operation.GET.ordinal()], is(1L));
+        assertThat(calls[Operation.MODIFY.ordinal()], is(1L));
+    }
+
+    @Test
+    public void disablingShouldStopRecording() {
+        OpticStats stats = new OpticStats();
+        Instrumentation.enable(stats);
+        Lens<Address, Integer> lens = Lenses.instrumented("streetNumber", streetNumber);
+        Instrumentation.disable();
+
+        lens.get(anAddress);
+
+        assertThat(stats.stats("streetNumber").calls(Operation.GET), is(0L));
+    }
+
+    @Test
+    public void allocationsShouldBeMeasuredWhenAsked() {
+        OpticStats stats = new OpticStats();
+        Instrumentation.enable(stats, true);
+        Lens<Address, Integer> lens = Lenses.instrumented("streetNumber", streetNumber);
+
+        for (int i = 0; i < 10; i++) {
+            lens.set(anAddress, i + 100);
+        }
+
+        assertThat(stats.stats("streetNumber").allocatedBytes(), greaterThan(0L));
+    }
+
+    @Test
+    public void histogramShouldReportPercentilesWithinABucket() {
+        LatencyHistogram h = new LatencyHistogram();
+        for (long v = 1; v <= 1000; v++) {
+            h.record(v * 1000);
+        }
+
+        long median = h.valueAtPercentile(50);
+        assertThat(h.count(), is(1000L));
+        assertThat(median, greaterThan(500_000L - 1));
+        assertThat(median, lessThanOrEqualTo(500_000L + 500_000L / 16));
+        assertThat(h.valueAtPercentile(100), greaterThan(999_999L));
+    }
+}
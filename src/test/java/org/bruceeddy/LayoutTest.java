@@ -0,0 +1,125 @@
+package org.bruceeddy;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class LayoutTest {
+
+    private final Layout address = Layout.builder()
+            .int32("streetNumber")
+            .int16("flat")
+            .int8("floor")
+            .padding(1)
+            .build();
+    private final Layout person = Layout.builder()
+            .int64("id")
+            .float64("score")
+            .struct("address", address)
+            .build();
+
+    @Test
+    public void fieldsShouldBeLaidOutInOrder() {
+        assertThat(address.size(), is(8));
+        assertThat(person.size(), is(24));
+        assertThat(person.offset("address"), is(16));
+        assertThat(address.offset("floor"), is(6));
+    }
+
+    @Test
+    public void fieldLensesShouldReadAndWriteInPlace() {
+        ByteBuffer buf = ByteBuffer.allocateDirect(person.size()).order(ByteOrder.LITTLE_ENDIAN);
+        LongLens<ByteBuffer> id = person.longField("id");
+        DoubleLens<ByteBuffer> score = person.doubleField("score");
+
+        assertThat(id.set(buf, 42L), sameInstance(buf));
+        score.modify(buf, s -> s + 1.5);
+
+        assertThat(id.get(buf), is(42L));
+        assertThat(buf.getLong(0), is(42L));
+        assertThat(score.get(buf), is(1.5));
+    }
+
+    @Test
+    public void composingOntoAStructShouldFoldOffsets() {
+        ByteBuffer buf = ByteBuffer.allocate(person.size());
+        IntLens<ByteBuffer> streetNumber = address.intField("streetNumber").compose(person.struct("address"));
+        IntLens<ByteBuffer> floor = person.layout("address").intField("floor").compose(person.struct("address"));
+
+        streetNumber.set(buf, 221);
+        floor.set(buf, -2);
+
+        assertThat(buf.getInt(16), is(221));
+        assertThat(buf.get(22), is((byte) -2));
+        assertThat(floor.get(buf), is(-2));
+        assertThat(address.intField("streetNumber").get(person.struct("address").get(buf)), is(221));
+    }
+
+    @Test
+    public void structLensShouldCopyRecords() {
+        ByteBuffer buf = ByteBuffer.allocate(person.size());
+        ByteBuffer other = ByteBuffer.allocate(address.size());
+        address.intField("flat").set(other, 7);
+
+        person.struct("address").set(buf, other);
+
+        assertThat(buf.getShort(20), is((short) 7));
+    }
+
+    @Test
+    public void boxedFieldShouldComposeWithOrdinaryLenses() {
+        ByteBuffer buf = ByteBuffer.allocate(address.size());
+        Lens<ByteBuffer, Integer> flat = address.intField("flat").boxed();
+
+        flat.modify(buf, f -> f + 3);
+
+        assertThat(flat.get(buf), is(3));
+    }
+
+    @Test
+    public void modifyAllShouldUpdateEveryRecordAndKeepThePosition() {
+        ByteBuffer buf = ByteBuffer.allocate(address.size() * 100 + 3);
+        IntLens<ByteBuffer> streetNumber = address.intField("streetNumber");
+        int[] i = {0};
+        address.forEach(buf, b -> streetNumber.set(b, i[0]++));
+
+        address.modifyAll(buf, streetNumber, n -> n * 2);
+
+        assertThat(address.count(buf), is(100));
+        assertThat(buf.position(), is(0));
+        assertThat(buf.getInt(99 * address.size()), is(198));
+        long[] sum = {0};
+        address.forEach(buf, b -> sum[0] += streetNumber.get(b));
+        assertThat(sum[0], is(9900L));
+    }
+
+    @Test
+    public void forEachShouldNotMoveTheBufferAndKeepItsOrder() {
+        ByteBuffer buf = ByteBuffer.allocate(address.size() * 10).order(ByteOrder.LITTLE_ENDIAN);
+        IntLens<ByteBuffer> streetNumber = address.intField("streetNumber");
+        buf.putInt(5 * address.size(), 7);
+
+        int[] found = {0};
+        address.forEach(buf, b -> {
+            assertThat(buf.position(), is(0));
+            found[0] += streetNumber.get(b);
+        });
+
+        assertThat(found[0], is(7));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void fieldOfTheWrongKindShouldBeRejected() {
+        person.intField("id");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void duplicateFieldsShouldBeRejected() {
+        Layout.builder().int8("a").int32("a");
+    }
+}
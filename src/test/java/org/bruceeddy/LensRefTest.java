@@ -0,0 +1,139 @@
+package org.bruceeddy;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static java.util.Arrays.asList;
+import static org.bruceeddy.LensTest.Address;
+import static org.bruceeddy.LensTest.Person;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class LensRefTest {
+
+    private final Lens<Person, Address> address = Lenses.gen(p -> p.address, (a, p) -> new Person(p.name, p.age, a));
+    private final Lens<Person, Integer> age = Lenses.gen(p -> p.age, (a, p) -> new Person(p.name, a, p.address));
+    private final Lens<Address, Integer> streetNumber = Lenses.gen(a -> a.streetNumber, (i, a) -> new Address(i, a.streetName));
+    private final Lens<Person, Integer> personsStreetNumber = streetNumber.compose(address);
+    private final Person aPerson = new Person("Joyo", 0, new Address(0, "The High Street"));
+
+    @Test
+    public void modifyShouldUpdateThroughComposedLens() {
+        LensRef<Person> ref = new LensRef<>(aPerson);
+
+        assertThat(ref.modify(personsStreetNumber, n -> n + 1).address.streetNumber, is(1));
+        assertThat(ref.get(personsStreetNumber), is(1));
+        assertThat(ref.set(age, 7).age, is(7));
+    }
+
+    @Test
+    public void unchangedModifyShouldSkipTheCompareAndSet() {
+        LensRef<Person> ref = new LensRef<>(aPerson);
+
+        assertThat(ref.modify(personsStreetNumber, n -> n), sameInstance(aPerson));
+        assertThat(ref.skipped(), is(1L));
+    }
+
+    @Test
+    public void concurrentModifiesShouldAllLand() throws Exception {
+        LensRef<Person> ref = new LensRef<>(aPerson);
+
+        run(4, () -> {
+            for (int i = 0; i < 10_000; i++) {
+                ref.modify(personsStreetNumber, n -> n + 1);
+            }
+        });
+
+        assertThat(ref.get(personsStreetNumber), is(40_000));
+    }
+
+    @Test
+    public void tryModifyShouldGiveUpAfterMaxAttempts() {
+        LensRef<Person> ref = new LensRef<>(aPerson);
+
+        Optional<Person> lost = ref.tryModify(age, a -> {
+            ref.set(personsStreetNumber, ref.get(personsStreetNumber) + 1);
+            return a + 1;
+        }, 2);
+
+        assertThat(lost.isPresent(), is(false));
+        assertThat(ref.retries(), is(1L));
+        assertThat(ref.failures(), is(1L));
+        assertThat(ref.get(age), is(0));
+    }
+
+    @Test
+    public void stripedRefShouldKeepStripesApart() throws Exception {
+        StripedLensRef<Person> ref = new StripedLensRef<>(aPerson, asList(address, age));
+
+        run(4, () -> {
+            for (int i = 0; i < 5_000; i++) {
+                ref.modify(personsStreetNumber, n -> n + 1);
+                ref.modify(age, a -> a + 1);
+            }
+        });
+
+        assertThat(ref.get(personsStreetNumber), is(20_000));
+        assertThat(ref.get(age), is(20_000));
+        assertThat(ref.get(), is(new Person("Joyo", 20_000, new Address(20_000, "The High Street"))));
+        assertThat(ref.set(address, new Address(1, "Low Road")).address, is(new Address(1, "Low Road")));
+        assertThat(ref.get(), is(sameInstance(ref.get())));
+    }
+
+    @Test
+    public void stripedRefShouldModifyThroughShuttersAndCountFailures() {
+        Shutter<Integer, Integer> positive = Shutters.ofNullable(n -> n > 0 ? n : null, (n, m) -> n);
+        StripedLensRef<Person> ref = new StripedLensRef<>(aPerson, asList(address, age));
+
+        Person unchanged = ref.modify(positive.compose(personsStreetNumber), n -> n + 1);
+        ref.set(age, 3);
+        Person changed = ref.modify(positive.compose(age), a -> a * 2);
+        Optional<Person> lost = ref.tryModify(age, a -> {
+            ref.modify(age, b -> b + 1);
+            return a + 1;
+        }, 1);
+
+        assertThat(unchanged.address.streetNumber, is(0));
+        assertThat(ref.skipped(), is(1L));
+        assertThat(changed.age, is(6));
+        assertThat(lost.isPresent(), is(false));
+        assertThat(ref.failures(), is(1L));
+        assertThat(ref.get(), is(new Person("Joyo", 7, new Address(0, "The High Street"))));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void stripedRefShouldRejectShuttersOffTheStripes() {
+        Shutter<Person, Person> whole = Shutters.ofNullable(p -> p, (p, q) -> p);
+
+        new StripedLensRef<>(aPerson, asList(address, age)).modify(whole, p -> p);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void stripedRefShouldRejectLensesOffTheStripes() {
+        Lens<Person, String> name = Lenses.gen(p -> p.name, (n, p) -> new Person(n, p.age, p.address));
+
+        new StripedLensRef<>(aPerson, asList(address, age)).modify(name, String::toUpperCase);
+    }
+
+    private static void run(int threads, Runnable r) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Object>> done = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                done.add(executor.submit(Executors.callable(r)));
+            }
+            for (Future<Object> f : done) {
+                f.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -7,10 +7,13 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 
 import static co.unruly.matchers.OptionalMatchers.contains;
@@ -19,6 +22,7 @@ import static java.util.Arrays.asList;
 import static java.util.Optional.of;
 import static org.bruceeddy.Functors.*;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.hamcrest.collection.IsIterableContainingInOrder.contains;
 import static org.junit.Assert.assertThat;
 
@@ -60,6 +64,107 @@ public class LensTest {
         assertThat(modified.streetNumber, is(11));
     }
 
+    @Test
+    public void lensShouldSetValueDirectly() {
+        Address updated = streetNumber.set(anAddress, 20);
+        assertThat(updated.streetNumber, is(20));
+    }
+
+    @Test
+    public void lensShouldModifyDirectly() {
+        Address modified = streetNumber.modify(anAddress, x -> x + 1);
+        assertThat(modified.streetNumber, is(11));
+    }
+
+    @Test
+    public void lensShouldModifyAllOfAList() {
+        List<Address> addresses = asList(anAddress, new Address(20, "Low Road"));
+        List<Address> modified = streetNumber.modifyAll(addresses, x -> x + 1);
+
+        assertThat(modified, contains(addressWithStreetNumber(11), addressWithStreetNumber(21)));
+    }
+
+    @Test
+    public void lensShouldModifyAllOfAnArray() {
+        Address[] addresses = {anAddress, new Address(20, "Low Road")};
+        Address[] modified = streetNumber.modifyAll(addresses, x -> x + 1);
+
+        assertThat(asList(modified), contains(addressWithStreetNumber(11), addressWithStreetNumber(21)));
+        assertThat(addresses[0], is(sameInstance(anAddress)));
+    }
+
+    @Test
+    public void modifyAllShouldKeepElementsWhoseTargetIsUnchanged() {
+        Lens<Address, String> streetName = Lenses.gen(a -> a.streetName, (n, a) -> new Address(a.streetNumber, n));
+        Address other = new Address(20, "Low Road");
+
+        List<Address> modified = streetName.modifyAll(asList(anAddress, other), n -> n.startsWith("The") ? n : "The " + n);
+
+        assertThat(modified.get(0), is(sameInstance(anAddress)));
+        assertThat(modified.get(1).streetName, is("The Low Road"));
+    }
+
+    @Test
+    public void composedLensShouldModifyAll() {
+        List<Person> modified = personsStreetNumber.modifyAll(asList(aPerson, aPerson), x -> x + 1);
+
+        assertThat(modified, contains(personWithStreetNumber(11), personWithStreetNumber(11)));
+    }
+
+    @Test
+    public void setShouldKeepSourceWhenTargetIsTheSame() {
+        Lens<Address, String> streetName = Lenses.gen(a -> a.streetName, (n, a) -> new Address(a.streetNumber, n));
+        assertThat(streetName.set(anAddress, anAddress.streetName), is(sameInstance(anAddress)));
+    }
+
+    @Test
+    public void modifyShouldKeepSourceWhenTargetIsTheSame() {
+        assertThat(address.modify(aPerson, a -> a), is(sameInstance(aPerson)));
+    }
+
+    @Test
+    public void composedLensShouldKeepEveryLevelWhenTargetIsTheSame() {
+        Lens<Address, String> streetName = Lenses.gen(a -> a.streetName, (n, a) -> new Address(a.streetNumber, n));
+        Lens<Person, String> personsStreetName = streetName.compose(address);
+
+        assertThat(personsStreetName.set(aPerson, anAddress.streetName), is(sameInstance(aPerson)));
+        assertThat(personsStreetName.modify(aPerson, n -> n), is(sameInstance(aPerson)));
+        assertThat(personsStreetName.set(aPerson, "Low Road").address.streetName, is("Low Road"));
+    }
+
+    @Test
+    public void unchangedIfEqualShouldKeepSourceWhenTargetIsEqual() {
+        Lens<Person, Integer> checked = Lenses.unchangedIfEqual(personsStreetNumber);
+
+        assertThat(checked.set(aPerson, new Integer(10)), is(sameInstance(aPerson)));
+        assertThat(checked.modify(aPerson, x -> x * 1), is(sameInstance(aPerson)));
+        assertThat(checked.modify(aPerson, x -> x + 1).address.streetNumber, is(11));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void lensShouldModifyF_inApplicatives() {
+        Optional<Person> optional = personsStreetNumber.modifyF(Applicatives.optional(), aPerson, n -> of(n + 1));
+        List<Person> list = personsStreetNumber.modifyF(Applicatives.list(), aPerson, n -> asList(n - 1, n + 1));
+        CompletableFuture<Person> future = personsStreetNumber.modifyF(Applicatives.future(), aPerson, n -> CompletableFuture.completedFuture(n + 1));
+
+        assertThat(optional.get().address.streetNumber, is(11));
+        assertThat(list, contains(personWithStreetNumber(9), personWithStreetNumber(11)));
+        assertThat(future, is(futureWhichResolvesTo(personWithStreetNumber(11))));
+    }
+
+    @Test
+    public void modifyFThroughIdentityShouldModify() {
+        Object modified = personsStreetNumber.modifyF(Applicatives.identity(), aPerson, n -> n + 1);
+        assertThat(((Person) modified).address.streetNumber, is(11));
+    }
+
+    @Test
+    public void modifyFThroughConstShouldGet() {
+        Address got = address.modifyF(Applicatives.constant(null, (a, b) -> a), aPerson, a -> a);
+        assertThat(got, is(sameInstance(anAddress)));
+    }
+
     @Test
     public void lensShouldModifyF_forListF() {
         Function<Integer, List<Integer>> neigbours = n -> asList(n - 1, n + 1);
@@ -141,6 +246,19 @@ public class LensTest {
         assertThat(modified.address.streetNumber, is(11));
     }
 
+    @Test
+    public void composedLensShouldSetValueDirectly() {
+        Person updated = personsStreetNumber.set(aPerson, 20);
+        assertThat(updated.address.streetNumber, is(20));
+        assertThat(updated.name, is("Joyo"));
+    }
+
+    @Test
+    public void composedLensShouldModifyDirectly() {
+        Person modified = personsStreetNumber.modify(aPerson, x -> x + 1);
+        assertThat(modified.address.streetNumber, is(11));
+    }
+
     @Test
     public void composedLensShouldModifyF_forFunctorOfList() {
         Function<Integer, Functor<List,Integer>> neigbours = n -> listFunctor(asList(n - 1, n + 1));
@@ -160,6 +278,28 @@ public class LensTest {
         assertThat(modifiedF, contains(personWithStreetNumber(9), personWithStreetNumber(11)));
     }
 
+    @Test
+    public void composedLensShouldModifyF_forListF_gettingEachLevelOnce() {
+        AtomicInteger gets = new AtomicInteger();
+        Lens<Person, Address> counted = Lenses.gen(p -> {
+            gets.incrementAndGet();
+            return p.address;
+        }, (a, p) -> new Person(p.name, p.age, a));
+
+        List<Person> modifiedF = streetNumber.compose(counted).modifyFList(n -> asList(n - 1, n, n + 1)).apply(aPerson);
+
+        assertThat(modifiedF, contains(personWithStreetNumber(9), personWithStreetNumber(10), personWithStreetNumber(11)));
+        assertThat(modifiedF.get(1), is(sameInstance(aPerson)));
+        assertThat(gets.get(), is(1));
+    }
+
+    @Test
+    public void composedLensShouldModifyF_forEmptyListF() {
+        List<Person> modifiedF = personsStreetNumber.modifyFList(n -> Collections.<Integer>emptyList()).apply(aPerson);
+
+        assertThat(modifiedF.isEmpty(), is(true));
+    }
+
     @Test
     public void composedLensShouldModifyF_forOptionalF() {
         Function<Integer, Optional<Integer>> onlyPositive = n -> n > 0 ? of(n) : Optional.empty();
@@ -181,6 +321,43 @@ public class LensTest {
         assertThat(modifiedF, is(futureWhichResolvesTo(personWithStreetNumber(11))));
     }
 
+    @Test
+    public void composedLensShouldModifyF_forFutureWithoutBlocking() {
+        CompletableFuture<Integer> later = new CompletableFuture<>();
+        CompletableFuture<Person> modifiedF = personsStreetNumber.modifyFFuture(x -> later).apply(aPerson);
+
+        assertThat(modifiedF.isDone(), is(false));
+        later.complete(42);
+        assertThat(modifiedF, is(futureWhichResolvesTo(personWithStreetNumber(42))));
+    }
+
+    @Test
+    public void composedLensShouldModifyF_forFutureOnExecutor() {
+        AtomicInteger tasks = new AtomicInteger();
+        Executor counting = r -> {
+            tasks.incrementAndGet();
+            r.run();
+        };
+
+        Person modified = personsStreetNumber.modifyFFuture(x -> CompletableFuture.completedFuture(x + 1), counting)
+                .apply(aPerson)
+                .join();
+
+        assertThat(modified.address.streetNumber, is(11));
+        assertThat(tasks.get(), is(1));
+    }
+
+    @Test
+    public void functorFutureShouldNotLoseValuesOfIncompleteFutures() {
+        CompletableFuture<Integer> later = new CompletableFuture<>();
+        Functor<CompletableFuture, Address> modifiedF = streetNumber.modifyF(x -> futureFunctor(later)).apply(anAddress);
+
+        CompletableFuture<Address> unwrapped = functorFuture(modifiedF);
+        later.complete(12);
+
+        assertThat(unwrapped, is(futureWhichResolvesTo(addressWithStreetNumber(12))));
+    }
+
     private <T> Matcher<CompletableFuture<T>> futureWhichResolvesTo(Matcher<T> matcher) {
         return new TypeSafeDiagnosingMatcher<CompletableFuture<T>>() {
             @Override
@@ -211,24 +388,121 @@ public class LensTest {
 
     @Test
     public void composedLensShouldCompose() {
-        class CoxedPair {
-            final Person cox;
-            final Person stroke;
-            final Person bow;
-
-            public CoxedPair(Person cox, Person stroke, Person bow) {
-                this.cox = cox;
-                this.stroke = stroke;
-                this.bow = bow;
-            }
-        }
-
         Lens<CoxedPair, Person> bow = Lenses.gen(c -> c.bow, (p, c) -> new CoxedPair(c.cox, c.stroke, p));
         Lens<CoxedPair, Integer> bowsStreetNumber = personsStreetNumber.compose(bow);
 
         assertThat(bowsStreetNumber.get(new CoxedPair(null, null, aPerson)), is(10));
     }
 
+    @Test
+    public void composedOfComposedLensesShouldSetAndModify() {
+        Lens<CoxedPair, Person> bow = Lenses.gen(c -> c.bow, (p, c) -> new CoxedPair(c.cox, c.stroke, p));
+        Lens<CoxedPair, Address> bowsAddress = address.compose(bow);
+        Lens<CoxedPair, Integer> bowsStreetNumber = streetNumber.compose(bowsAddress);
+        CoxedPair crew = new CoxedPair(null, aPerson, aPerson);
+
+        CoxedPair set = bowsStreetNumber.set(crew, 20);
+        CoxedPair modified = bowsStreetNumber.modify(x -> x + 1).apply(crew);
+
+        assertThat(set.bow.address.streetNumber, is(20));
+        assertThat(set.bow.name, is("Joyo"));
+        assertThat(set.stroke, is(aPerson));
+        assertThat(modified.bow.address.streetNumber, is(11));
+        assertThat(bowsStreetNumber.modifyFList(n -> asList(n - 1, n + 1)).apply(crew).get(1).bow.address.streetNumber, is(11));
+    }
+
+    @Test
+    public void editShouldApplyUpdatesInOrder() {
+        Lens<Address, String> streetName = Lenses.gen(a -> a.streetName, (n, a) -> new Address(a.streetNumber, n));
+        Lens<Person, Integer> age = Lenses.gen(p -> p.age, (a, p) -> new Person(p.name, a, p.address));
+
+        Person edited = Lenses.edit(aPerson)
+                .set(personsStreetNumber, 20)
+                .modify(personsStreetNumber, n -> n + 1)
+                .set(streetName.compose(address), "Low Road")
+                .modify(age, a -> a + 1)
+                .commit();
+
+        assertThat(edited, is(new Person("Joyo", 100, new Address(21, "Low Road"))));
+    }
+
+    @Test
+    public void editShouldRebuildSharedAncestorsOnce() {
+        AtomicInteger rebuilds = new AtomicInteger();
+        Lens<Person, Address> counted = Lenses.gen(p -> p.address, (a, p) -> {
+            rebuilds.incrementAndGet();
+            return new Person(p.name, p.age, a);
+        });
+        Lens<Address, String> streetName = Lenses.gen(a -> a.streetName, (n, a) -> new Address(a.streetNumber, n));
+
+        Person edited = Lenses.edit(aPerson)
+                .set(streetNumber.compose(counted), 20)
+                .set(streetName.compose(counted), "Low Road")
+                .commit();
+
+        assertThat(edited.address, is(new Address(20, "Low Road")));
+        assertThat(rebuilds.get(), is(1));
+    }
+
+    @Test
+    public void editShouldLetLaterUpdatesOverrideEarlierOnes() {
+        Person edited = Lenses.edit(aPerson)
+                .set(personsStreetNumber, 20)
+                .set(address, new Address(30, "Low Road"))
+                .modify(personsStreetNumber, n -> n + 1)
+                .commit();
+
+        assertThat(edited.address, is(new Address(31, "Low Road")));
+    }
+
+    @Test
+    public void editWhichChangesNothingShouldKeepRoot() {
+        assertThat(Lenses.edit(aPerson).modify(personsStreetNumber, n -> n).commit(), is(sameInstance(aPerson)));
+    }
+
+    @Test
+    public void cachedLensShouldOnlyGetOncePerSource() {
+        AtomicInteger gets = new AtomicInteger();
+        CachedLens<Address, String> upperName = Lenses.cached(Lenses.gen(a -> {
+            gets.incrementAndGet();
+            return a.streetName.toUpperCase();
+        }, (n, a) -> new Address(a.streetNumber, n)), 16);
+
+        assertThat(upperName.get(anAddress), is("THE HIGH STREET"));
+        assertThat(upperName.get(anAddress), is("THE HIGH STREET"));
+        assertThat(upperName.get(new Address(10, "Low Road")), is("LOW ROAD"));
+
+        assertThat(gets.get(), is(2));
+        assertThat(upperName.hits(), is(1L));
+        assertThat(upperName.misses(), is(2L));
+    }
+
+    @Test
+    public void cachedLensShouldSetAndModifyWithoutGettingAgain() {
+        AtomicInteger gets = new AtomicInteger();
+        CachedLens<Address, String> upperName = Lenses.cached(Lenses.gen(a -> {
+            gets.incrementAndGet();
+            return a.streetName.toUpperCase();
+        }, (n, a) -> new Address(a.streetNumber, n)), 16);
+
+        String name = upperName.get(anAddress);
+        assertThat(upperName.set(anAddress, name), is(sameInstance(anAddress)));
+        assertThat(upperName.set(anAddress, "LOW ROAD"), is(new Address(10, "LOW ROAD")));
+        assertThat(upperName.modify(anAddress, String::toLowerCase), is(new Address(10, "the high street")));
+
+        assertThat(gets.get(), is(1));
+    }
+
+    @Test
+    public void cachedLensShouldComposeAndModify() {
+        CachedLens<Person, Address> cachedAddress = Lenses.cached(address, 16);
+        Lens<Person, Integer> cachedStreetNumber = streetNumber.compose(cachedAddress);
+
+        assertThat(cachedStreetNumber.get(aPerson), is(10));
+        assertThat(cachedStreetNumber.modify(aPerson, n -> n + 1).address.streetNumber, is(11));
+        assertThat(cachedAddress.hits(), is(1L));
+    }
+
     static class Address {
 
         final int streetNumber;
@@ -267,6 +541,18 @@ public class LensTest {
         }
     }
 
+    static class CoxedPair {
+        final Person cox;
+        final Person stroke;
+        final Person bow;
+
+        public CoxedPair(Person cox, Person stroke, Person bow) {
+            this.cox = cox;
+            this.stroke = stroke;
+            this.bow = bow;
+        }
+    }
+
     static class Person {
         final String name;
         final int age;
@@ -0,0 +1,143 @@
+package org.bruceeddy;
+
+import org.junit.Test;
+
+import java.util.Optional;
+
+import static org.bruceeddy.LensTest.Address;
+import static org.bruceeddy.LensTest.Person;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class PatchTest {
+
+    private final Lens<Person, Address> address = Lenses.gen(p -> p.address, (a, p) -> new Person(p.name, p.age, a));
+    private final Lens<Person, Integer> age = Lenses.gen(p -> p.age, (a, p) -> new Person(p.name, a, p.address));
+    private final Lens<Address, Integer> streetNumber = Lenses.gen(a -> a.streetNumber, (i, a) -> new Address(i, a.streetName));
+    private final Lens<Person, Integer> personsStreetNumber = streetNumber.compose(address);
+    private final Shutter<Person, String> streetName = Shutters.<Address, String>ofNullable(a -> a.streetName, (n, a) -> new Address(a.streetNumber, n)).compose(address);
+    private final Person aPerson = new Person("Joyo", 0, new Address(0, "The High Street"));
+
+    private final PatchSchema<Person> schema = PatchSchema.<Person>builder()
+            .lens(0, age, PatchCodecs.INT)
+            .lens(1, personsStreetNumber, PatchCodecs.INT)
+            .shutter(2, streetName, PatchCodecs.STRING)
+            .build();
+
+    @Test
+    public void recordedPatchShouldReplayTheUpdates() {
+        PatchRecorder<Person> recorder = schema.recorder();
+        Person p = recorder.recording(personsStreetNumber).modify(aPerson, n -> n + 10);
+        p = recorder.recording(streetName).setOptional(p, "Low Road");
+        p = recorder.recording(age).set(p, 30);
+
+        Patch<Person> patch = recorder.drain();
+        assertThat(patch.size(), is(3));
+        assertThat(patch.apply(aPerson), is(p));
+        assertThat(recorder.isEmpty(), is(true));
+    }
+
+    @Test
+    public void unchangedUpdatesShouldRecordNothing() {
+        PatchRecorder<Person> recorder = schema.recorder();
+        Lens<Person, Integer> recordingAge = recorder.recording(age);
+
+        assertThat(recordingAge.modify(aPerson, a -> a), sameInstance(aPerson));
+        assertThat(recordingAge.set(aPerson, 0), sameInstance(aPerson));
+        assertThat(recorder.isEmpty(), is(true));
+        assertThat(recorder.drain().apply(aPerson), sameInstance(aPerson));
+    }
+
+    @Test
+    public void laterChangesToAPathShouldReplaceEarlierOnes() {
+        PatchRecorder<Person> recorder = schema.recorder();
+        Lens<Person, Integer> recordingAge = recorder.recording(age);
+        Lens<Person, Integer> recordingStreetNumber = recorder.recording(personsStreetNumber);
+        Person p = aPerson;
+        for (int i = 1; i <= 100; i++) {
+            p = recordingAge.set(p, i);
+            p = recordingStreetNumber.set(p, -i);
+        }
+
+        Patch<Person> patch = recorder.drain();
+        assertThat(patch.size(), is(2));
+        assertThat(patch.id(0), is(0));
+        assertThat(patch.value(1), is(-100));
+        assertThat(patch.apply(aPerson), is(p));
+    }
+
+    @Test
+    public void encodedPatchShouldDecodeToTheSameChanges() {
+        PatchRecorder<Person> recorder = schema.recorder();
+        Person p = recorder.recording(personsStreetNumber).set(aPerson, 7);
+        p = recorder.recording(streetName).setOptional(p, "Rue de la Paix");
+
+        byte[] bytes = recorder.drain().encode();
+        assertThat(schema.apply(aPerson, bytes), is(p));
+        assertThat(schema.decode(schema.recorder().drain().encode()).isEmpty(), is(true));
+    }
+
+    @Test
+    public void singleIntChangeShouldEncodeInSixBytes() {
+        PatchRecorder<Person> recorder = schema.recorder();
+        recorder.recording(age).set(aPerson, 1);
+
+        assertThat(recorder.drain().encode().length, is(6));
+    }
+
+    @Test
+    public void optionalCodecShouldRoundTripAbsentTargets() {
+        Lens<PersistentMap<String, Integer>, Optional<Integer>> joyo = Lenses.at("joyo");
+        PatchSchema<PersistentMap<String, Integer>> mapSchema = PatchSchema.<PersistentMap<String, Integer>>builder()
+                .lens(0, joyo, PatchCodecs.optional(PatchCodecs.INT))
+                .build();
+        PatchRecorder<PersistentMap<String, Integer>> recorder = mapSchema.recorder();
+        PersistentMap<String, Integer> m = PersistentMap.<String, Integer>empty().put("joyo", 1);
+
+        PersistentMap<String, Integer> removed = recorder.recording(joyo).set(m, Optional.empty());
+
+        assertThat(mapSchema.apply(m, recorder.drain().encode()).containsKey("joyo"), is(false));
+        assertThat(removed.containsKey("joyo"), is(false));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void recordingShouldRejectOpticsNotInTheSchema() {
+        schema.recorder().recording(address);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void decodeShouldRejectUnknownIds() {
+        schema.decode(new byte[]{1, 9, 0, 0, 0, 0});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void decodeShouldRejectTruncatedPatches() {
+        schema.decode(new byte[]{1, 0, 0});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void decodeShouldRejectNegativeCounts() {
+        schema.decode(new byte[]{-1, -1, -1, -1, 0x0F});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void decodeShouldRejectCountsLongerThanThePatch() {
+        schema.decode(new byte[]{-1, -1, -1, -1, 0x07});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void decodeShouldRejectStringLengthsLongerThanThePatch() {
+        schema.decode(new byte[]{1, 2, 0x7F, -1, -1, -1, 'a'});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void decodeShouldRejectNegativeStringLengths() {
+        schema.decode(new byte[]{1, 2, -1, -1, -1, -1});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void decodeShouldRejectTrailingBytes() {
+        schema.decode(new byte[]{1, 0, 0, 0, 0, 1, 99, 99});
+    }
+}
@@ -0,0 +1,147 @@
+package org.bruceeddy;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+
+import static co.unruly.matchers.OptionalMatchers.contains;
+import static co.unruly.matchers.OptionalMatchers.empty;
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class PersistentCollectionTest {
+
+    /**
+     * Only 16 distinct hashes, so that most keys collide.
+     */
+    static final class Clashing {
+        final int id;
+
+        Clashing(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Clashing && ((Clashing) o).id == id;
+        }
+
+        @Override
+        public int hashCode() {
+            return id % 16;
+        }
+    }
+
+    @Test
+    public void mapShouldAgreeWithHashMap() {
+        Random random = new Random(42);
+        Map<Integer, Integer> expected = new HashMap<>();
+        PersistentMap<Integer, Integer> map = PersistentMap.empty();
+
+        for (int i = 0; i < 50_000; i++) {
+            int k = random.nextInt(20_000);
+            if (random.nextInt(4) == 0) {
+                expected.remove(k);
+                map = map.remove(k);
+            } else {
+                expected.put(k, i);
+                map = map.put(k, i);
+            }
+        }
+
+        assertThat(map.size(), is(expected.size()));
+        for (int k = 0; k < 20_000; k++) {
+            assertThat(map.get(k), is(expected.get(k)));
+        }
+    }
+
+    @Test
+    public void mapShouldHandleCollidingHashes() {
+        PersistentMap<Clashing, Integer> map = PersistentMap.empty();
+        for (int i = 0; i < 100; i++) {
+            map = map.put(new Clashing(i), i);
+        }
+        for (int i = 0; i < 100; i += 2) {
+            map = map.remove(new Clashing(i));
+        }
+
+        assertThat(map.size(), is(50));
+        assertThat(map.get(new Clashing(3)), is(3));
+        assertThat(map.get(new Clashing(4)), is(nullValue()));
+    }
+
+    @Test
+    public void mapShouldKeepOldVersionsAndReturnItselfWhenUnchanged() {
+        Integer one = 1;
+        PersistentMap<String, Integer> before = PersistentMap.<String, Integer>empty().put("a", one);
+        PersistentMap<String, Integer> after = before.put("a", 2).put("b", 3);
+
+        assertThat(before.get("a"), is(1));
+        assertThat(before.containsKey("b"), is(false));
+        assertThat(after.size(), is(2));
+        assertThat(before.put("a", one), sameInstance(before));
+        assertThat(before.remove("z"), sameInstance(before));
+        assertThat(before.remove("a").size(), is(0));
+    }
+
+    @Test
+    public void vectorShouldAppendAndSetAcrossLevels() {
+        PersistentVector<Integer> vector = PersistentVector.empty();
+        for (int i = 0; i < 40_000; i++) {
+            vector = vector.append(i);
+        }
+        PersistentVector<Integer> set = vector.set(33_000, -1);
+
+        assertThat(vector.size(), is(40_000));
+        assertThat(vector.get(33_000), is(33_000));
+        assertThat(set.get(33_000), is(-1));
+        assertThat(set.get(32_999), is(32_999));
+        assertThat(vector.set(7, vector.get(7)), sameInstance(vector));
+        assertThat(PersistentVector.of(1, 2, 3).toList(), is(asList(1, 2, 3)));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void vectorShouldRejectIndicesOutOfBounds() {
+        PersistentVector.of(1, 2, 3).get(3);
+    }
+
+    @Test
+    public void atLensShouldPutAndRemoveEntries() {
+        Lens<PersistentMap<String, Integer>, Optional<Integer>> a = Lenses.at("a");
+        PersistentMap<String, Integer> map = PersistentMap.<String, Integer>empty().put("b", 2);
+
+        assertThat(a.get(map), is(empty()));
+        assertThat(a.set(map, Optional.of(1)).get("a"), is(1));
+        assertThat(a.get(a.set(map, Optional.of(1))), contains(1));
+        assertThat(a.set(a.set(map, Optional.of(1)), Optional.empty()).containsKey("a"), is(false));
+    }
+
+    @Test
+    public void atShutterShouldOnlyModifyPresentEntries() {
+        Shutter<PersistentMap<String, Integer>, Integer> a = Shutters.at("a");
+        PersistentMap<String, Integer> without = PersistentMap.<String, Integer>empty().put("b", 2);
+        PersistentMap<String, Integer> with = without.put("a", 1);
+
+        assertThat(a.modify(with, x -> x + 1).get("a"), is(2));
+        assertThat(a.modify(without, x -> x + 1), sameInstance(without));
+        assertThat(a.setOptional(without, 5), sameInstance(without));
+    }
+
+    @Test
+    public void indexShutterShouldOnlyModifyIndicesInBounds() {
+        Shutter<PersistentVector<Integer>, Integer> second = Shutters.index(1);
+        PersistentVector<Integer> one = PersistentVector.of(1);
+        PersistentVector<Integer> two = PersistentVector.of(1, 2);
+
+        assertThat(second.getOptional(two), contains(2));
+        assertThat(second.getOptional(one), is(empty()));
+        assertThat(second.modify(two, x -> x * 10).toList(), is(asList(1, 20)));
+        assertThat(second.modify(one, x -> x * 10), sameInstance(one));
+    }
+}
@@ -0,0 +1,120 @@
+package org.bruceeddy;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class PrimitiveLensTest {
+
+    static class Quote {
+        final int size;
+        final long timestamp;
+        final double price;
+
+        Quote(int size, long timestamp, double price) {
+            this.size = size;
+            this.timestamp = timestamp;
+            this.price = price;
+        }
+    }
+
+    static class Book {
+        final String symbol;
+        final Quote bid;
+
+        Book(String symbol, Quote bid) {
+            this.symbol = symbol;
+            this.bid = bid;
+        }
+    }
+
+    private IntLens<Quote> size;
+    private LongLens<Quote> timestamp;
+    private DoubleLens<Quote> price;
+    private Lens<Book, Quote> bid;
+    private Quote aQuote;
+    private Book aBook;
+
+    @Before
+    public void createLenses() {
+        size = IntLenses.gen(q -> q.size, (s, q) -> new Quote(s, q.timestamp, q.price));
+        timestamp = LongLenses.gen(q -> q.timestamp, (t, q) -> new Quote(q.size, t, q.price));
+        price = DoubleLenses.gen(q -> q.price, (p, q) -> new Quote(q.size, q.timestamp, p));
+        bid = Lenses.gen(b -> b.bid, (q, b) -> new Book(b.symbol, q));
+    }
+
+    @Before
+    public void createValues() {
+        aQuote = new Quote(100, 1_000_000_000_000L, 1.25);
+        aBook = new Book("ABC", aQuote);
+    }
+
+    @Test
+    public void intLensShouldGetSetAndModify() {
+        assertThat(size.get(aQuote), is(100));
+        assertThat(size.set(aQuote, 200).size, is(200));
+        assertThat(size.modify(x -> x + 1).apply(aQuote).size, is(101));
+    }
+
+    @Test
+    public void longLensShouldGetSetAndModify() {
+        assertThat(timestamp.get(aQuote), is(1_000_000_000_000L));
+        assertThat(timestamp.set(aQuote, 5L).timestamp, is(5L));
+        assertThat(timestamp.modify(aQuote, t -> t + 1).timestamp, is(1_000_000_000_001L));
+    }
+
+    @Test
+    public void doubleLensShouldGetSetAndModify() {
+        assertThat(price.get(aQuote), is(1.25));
+        assertThat(price.set(2.5).apply(aQuote).price, is(2.5));
+        assertThat(price.modify(aQuote, p -> p * 2).price, is(2.5));
+    }
+
+    @Test
+    public void composedIntLensShouldGetSetAndModify() {
+        IntLens<Book> bidSize = size.compose(bid);
+
+        assertThat(bidSize.get(aBook), is(100));
+        assertThat(bidSize.set(aBook, 200).bid.size, is(200));
+        assertThat(bidSize.modify(aBook, x -> x + 1).bid.size, is(101));
+        assertThat(bidSize.modify(aBook, x -> x + 1).symbol, is("ABC"));
+    }
+
+    @Test
+    public void composedPrimitiveLensShouldComposeFurther() {
+        class Desk {
+            final Book book;
+
+            Desk(Book book) {
+                this.book = book;
+            }
+        }
+        Lens<Desk, Book> book = Lenses.gen(d -> d.book, (b, d) -> new Desk(b));
+        DoubleLens<Desk> bidPrice = price.compose(bid).compose(book);
+
+        assertThat(bidPrice.get(new Desk(aBook)), is(1.25));
+        assertThat(bidPrice.modify(new Desk(aBook), p -> p + 1).book.bid.price, is(2.25));
+    }
+
+    @Test
+    public void primitiveLensesShouldKeepSourceWhenTargetIsTheSame() {
+        IntLens<Book> bidSize = size.compose(bid);
+
+        assertThat(bidSize.set(aBook, 100), is(sameInstance(aBook)));
+        assertThat(bidSize.modify(aBook, x -> x), is(sameInstance(aBook)));
+        assertThat(timestamp.set(aQuote, 1_000_000_000_000L), is(sameInstance(aQuote)));
+        assertThat(price.modify(aQuote, p -> p), is(sameInstance(aQuote)));
+        assertThat(price.set(price.set(aQuote, 0.0), -0.0).price, is(-0.0));
+    }
+
+    @Test
+    public void boxedShouldBehaveAsOrdinaryLens() {
+        Lens<Book, Integer> bidSize = size.compose(bid).boxed();
+
+        assertThat(bidSize.get(aBook), is(100));
+        assertThat(bidSize.set(aBook, 7).bid.size, is(7));
+    }
+}
@@ -0,0 +1,136 @@
+package org.bruceeddy;
+
+import org.junit.Test;
+
+import java.util.Optional;
+
+import static co.unruly.matchers.OptionalMatchers.contains;
+import static co.unruly.matchers.OptionalMatchers.empty;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+public class PrismTest {
+
+    interface Shape {
+    }
+
+    static class Circle implements Shape {
+        final int radius;
+
+        Circle(int radius) {
+            this.radius = radius;
+        }
+    }
+
+    static class Square implements Shape {
+        final int side;
+
+        Square(int side) {
+            this.side = side;
+        }
+    }
+
+    private final Prism<Shape, Circle> circle = Prisms.instanceOf(Circle.class);
+    private final Lens<Circle, Integer> radius = Lenses.gen(c -> c.radius, (r, c) -> new Circle(r));
+
+    @Test
+    public void prismShouldGetMatchingCase() {
+        assertThat(circle.getOptional(new Circle(2)).map(c -> c.radius), contains(2));
+        assertThat(circle.getOptional(new Square(2)), is(empty()));
+    }
+
+    @Test
+    public void modifyShouldRebuildMatchingCaseOnly() {
+        Shape square = new Square(2);
+
+        assertThat(((Circle) circle.modify(new Circle(2), c -> new Circle(c.radius * 2))).radius, is(4));
+        assertThat(circle.modify(square, c -> new Circle(c.radius * 2)), sameInstance(square));
+    }
+
+    @Test
+    public void setShouldOnlyReplaceMatchingCase() {
+        Shape square = new Square(2);
+        Circle replacement = new Circle(5);
+
+        assertThat(circle.set(new Circle(1), replacement), sameInstance(replacement));
+        assertThat(circle.set(square, replacement), sameInstance(square));
+    }
+
+    @Test
+    public void genPrismShouldMatchWithGivenOptional() {
+        Prism<String, Integer> integer = Prisms.gen(PrismTest::parse, String::valueOf);
+
+        assertThat(integer.modify("41", i -> i + 1), is("42"));
+        assertThat(integer.modify("forty-one", i -> i + 1), is("forty-one"));
+        assertThat(integer.modifyOptional("forty-one", i -> i + 1), is(empty()));
+        assertThat(integer.reverseGet(7), is("7"));
+    }
+
+    @Test
+    public void prismShouldComposeWithPrism() {
+        Prism<Object, String> string = Prisms.instanceOf(String.class);
+        Prism<Object, Integer> numeric = string.andThen(Prisms.gen(PrismTest::parse, String::valueOf));
+
+        assertThat(numeric.getOptional("12"), contains(12));
+        assertThat(numeric.getOptional(12), is(empty()));
+        assertThat(numeric.modify("12", i -> i + 1), is("13"));
+    }
+
+    @Test
+    public void prismShouldComposeWithLens() {
+        Shutter<Shape, Integer> circleRadius = circle.andThen(radius);
+        Shape square = new Square(3);
+
+        assertThat(circleRadius.getOptional(new Circle(3)), contains(3));
+        assertThat(circleRadius.getOptional(square), is(empty()));
+        assertThat(((Circle) circleRadius.modify(new Circle(3), r -> r + 1)).radius, is(4));
+        assertThat(circleRadius.setOptional(square, 9), sameInstance(square));
+    }
+
+    @Test
+    public void prismShouldComposeWithShutter() {
+        Shutter<Circle, Integer> positive = Shutters.gen(c -> c.radius > 0 ? Optional.of(c.radius) : Optional.empty(),
+                (r, c) -> c.radius > 0 ? new Circle(r) : c);
+        Shutter<Shape, Integer> positiveRadius = circle.andThen(positive);
+
+        assertThat(positiveRadius.getOptional(new Circle(3)), contains(3));
+        assertThat(positiveRadius.getOptional(new Circle(-3)), is(empty()));
+        assertThat(((Circle) positiveRadius.setOptional(new Circle(3), 7)).radius, is(7));
+    }
+
+    @Test
+    public void prismShouldComposeAfterLens() {
+        class Drawing {
+            final Shape shape;
+
+            Drawing(Shape shape) {
+                this.shape = shape;
+            }
+        }
+        Lens<Drawing, Shape> shape = Lenses.gen(d -> d.shape, (s, d) -> new Drawing(s));
+        Shutter<Drawing, Circle> drawnCircle = circle.compose(shape);
+        Drawing ofSquare = new Drawing(new Square(1));
+
+        assertThat(drawnCircle.getOptional(new Drawing(new Circle(1))).map(c -> c.radius), contains(1));
+        assertThat(drawnCircle.modify(ofSquare, c -> new Circle(2)), sameInstance(ofSquare));
+        assertThat(((Circle) drawnCircle.setOptional(new Drawing(new Circle(1)), new Circle(2)).shape).radius, is(2));
+    }
+
+    @Test
+    public void asShutterShouldBehaveLikeThePrism() {
+        Shutter<Shape, Circle> shutter = circle.asShutter();
+
+        assertThat(shutter.getOptional(new Square(1)), is(empty()));
+        assertThat(shutter.nonEmpty(new Square(1)), is(true));
+        assertThat(shutter.modifyOptional(c -> new Circle(c.radius + 1)).apply(new Circle(1)).map(s -> ((Circle) s).radius), contains(2));
+    }
+
+    private static Optional<Integer> parse(String s) {
+        try {
+            return Optional.of(Integer.valueOf(s));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package org.bruceeddy;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.file.NoSuchFileException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+public class RecordFileTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private final Layout account = Layout.builder()
+            .int64("id")
+            .int32("balance")
+            .padding(4)
+            .build();
+    private final LongLens<ByteBuffer> id = account.longField("id");
+    private final IntLens<ByteBuffer> balance = account.intField("balance");
+
+    @Test
+    public void writesShouldPersistAcrossOpens() throws Exception {
+        File file = folder.newFile();
+        try (RecordFile records = RecordFile.create(file.toPath(), account, 1000, RecordFile.Mode.IN_PLACE)) {
+            records.set(999, id, 42L);
+            assertThat(records.modify(999, balance, b -> b + 10), is(10));
+        }
+
+        assertThat(file.length(), is(16_000L));
+        try (RecordFile records = RecordFile.open(file.toPath(), account, RecordFile.Mode.IN_PLACE)) {
+            assertThat(records.size(), is(1000L));
+            assertThat(records.get(999, id), is(42L));
+            assertThat(records.get(999, balance), is(10));
+        }
+    }
+
+    @Test
+    public void recordsShouldSpanSegments() throws Exception {
+        try (RecordFile records = RecordFile.create(folder.newFile().toPath(), account, 10_000, RecordFile.Mode.IN_PLACE, 8192)) {
+            for (long i = 0; i < records.size(); i++) {
+                records.set(i, id, i);
+            }
+            records.modifyAll(balance, b -> b + 1);
+
+            AtomicLong sum = new AtomicLong();
+            records.forEach(b -> sum.addAndGet(id.get(b) + balance.get(b)));
+            assertThat(sum.get(), is(10_000L * 9_999 / 2 + 10_000));
+        }
+    }
+
+    @Test
+    public void parallelModifyAllShouldVisitEveryRecordOnce() throws Exception {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try (RecordFile records = RecordFile.create(folder.newFile().toPath(), account, 100_000, RecordFile.Mode.COPY_ON_WRITE, 65536)) {
+            records.parallel(pool).modifyAll(balance, b -> b + 1);
+
+            AtomicLong sum = new AtomicLong();
+            records.parallel(pool).forEach(b -> sum.addAndGet(balance.get(b)));
+            assertThat(sum.get(), is(100_000L));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void parallelCopyOnWriteModifyAllShouldKeepAnOpenSnapshotIntact() throws Exception {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try (RecordFile records = RecordFile.create(folder.newFile().toPath(), account, 100_000, RecordFile.Mode.COPY_ON_WRITE, 65536)) {
+            records.parallel(pool).modifyAll(balance, b -> b + 1);
+            try (RecordFile.Snapshot snapshot = records.snapshot()) {
+                records.parallel(pool).modifyAll(balance, b -> b * 10);
+
+                AtomicLong sum = new AtomicLong();
+                records.parallel(pool).forEach(b -> sum.addAndGet(balance.get(b)));
+                assertThat(sum.get(), is(1_000_000L));
+                for (long i = 0; i < records.size(); i += 97) {
+                    assertThat(snapshot.get(i, balance), is(1));
+                    assertThat(records.get(i, balance), is(10));
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void snapshotShouldSeeTheFileAsItWasWhenTaken() throws Exception {
+        try (RecordFile records = RecordFile.create(folder.newFile().toPath(), account, 1000, RecordFile.Mode.COPY_ON_WRITE)) {
+            records.set(7, balance, 1);
+            RecordFile.Snapshot first = records.snapshot();
+            records.set(7, balance, 2);
+            records.modifyAll(balance, b -> b + 10);
+            RecordFile.Snapshot second = records.snapshot();
+            records.set(7, balance, 3);
+            records.set(500, balance, 3);
+
+            assertThat(first.get(7, balance), is(1));
+            assertThat(first.get(500, balance), is(0));
+            assertThat(second.get(7, balance), is(12));
+            assertThat(second.get(500, balance), is(10));
+            assertThat(records.get(7, balance), is(3));
+            first.close();
+            second.close();
+        }
+    }
+
+    @Test
+    public void snapshotReadsShouldBeConsistentWhileWriting() throws Exception {
+        try (RecordFile records = RecordFile.create(folder.newFile().toPath(), account, 1000, RecordFile.Mode.COPY_ON_WRITE)) {
+            Thread writer = new Thread(() -> {
+                for (int i = 0; i < 500; i++) {
+                    records.modifyAll(id, n -> n + 1);
+                }
+            });
+            writer.start();
+            while (writer.isAlive()) {
+                try (RecordFile.Snapshot snapshot = records.snapshot()) {
+                    long first = snapshot.get(0, id);
+                    long previous = first;
+                    for (long i = 0; i < records.size(); i += 7) {
+                        long n = snapshot.get(i, id);
+                        assertThat(n <= previous && first - n <= 1, is(true));
+                        assertThat(snapshot.get(i, id), is(n));
+                        previous = n;
+                    }
+                }
+            }
+            writer.join();
+        }
+    }
+
+    @Test
+    public void createShouldCreateTheFileEvenWithNoRecords() throws Exception {
+        File file = new File(folder.getRoot(), "empty");
+        try (RecordFile records = RecordFile.create(file.toPath(), account, 0, RecordFile.Mode.IN_PLACE)) {
+            assertThat(records.size(), is(0L));
+        }
+
+        assertThat(file.exists(), is(true));
+    }
+
+    @Test(expected = NoSuchFileException.class)
+    public void openShouldNotCreateTheFile() throws Exception {
+        RecordFile.open(new File(folder.getRoot(), "missing").toPath(), account, RecordFile.Mode.IN_PLACE);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void snapshotShouldNeedCopyOnWrite() throws Exception {
+        try (RecordFile records = RecordFile.create(folder.newFile().toPath(), account, 10, RecordFile.Mode.IN_PLACE)) {
+            records.snapshot();
+        }
+    }
+}
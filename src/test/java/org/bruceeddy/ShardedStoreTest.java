@@ -0,0 +1,184 @@
+package org.bruceeddy;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.bruceeddy.LensTest.Address;
+import static org.bruceeddy.LensTest.Person;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+public class ShardedStoreTest {
+
+    private final Lens<Person, Address> address = Lenses.gen(p -> p.address, (a, p) -> new Person(p.name, p.age, a));
+    private final Lens<Person, Integer> age = Lenses.gen(p -> p.age, (a, p) -> new Person(p.name, a, p.address));
+    private final Lens<Address, Integer> streetNumber = Lenses.gen(a -> a.streetNumber, (i, a) -> new Address(i, a.streetName));
+    private final Lens<Person, Integer> personsStreetNumber = streetNumber.compose(address);
+    private final Person aPerson = new Person("Joyo", 0, new Address(0, "The High Street"));
+
+    @Test
+    public void updatesShouldBeVisibleThroughLenses() throws Exception {
+        ShardedStore<String, Person> store = new ShardedStore<>(4);
+        store.put("joyo", aPerson).get();
+
+        assertThat(store.update("joyo", personsStreetNumber, n -> n + 1).get().address.streetNumber, is(1));
+        assertThat(store.get("joyo", personsStreetNumber), is(1));
+        assertThat(store.update("bo", age, a -> a + 1).get(), is(nullValue()));
+        assertThat(store.get("bo"), is(nullValue()));
+        assertThat(store.size(), is(1));
+    }
+
+    @Test
+    public void versionShouldChangeOnlyWhenTheValueDoes() throws Exception {
+        ShardedStore<String, Person> store = new ShardedStore<>(1);
+        store.put("joyo", aPerson).get();
+        long v = store.version("joyo");
+
+        store.update("joyo", age, a -> a).get();
+        assertThat(store.version("joyo"), is(v));
+        store.update("joyo", age, a -> a + 1).get();
+        assertThat(store.version("joyo") > v, is(true));
+        store.remove("joyo").get();
+        assertThat(store.version("joyo"), is(0L));
+    }
+
+    @Test
+    public void failedUpdateShouldFailOnlyItsOwnFuture() throws Exception {
+        ShardedStore<String, Person> store = new ShardedStore<>(1);
+        store.put("joyo", aPerson).get();
+
+        try {
+            store.update("joyo", age, a -> { throw new IllegalStateException(); }).get();
+            fail();
+        } catch (ExecutionException e) {
+            assertThat(e.getCause(), instanceOf(IllegalStateException.class));
+        }
+        assertThat(store.update("joyo", age, a -> a + 1).get().age, is(1));
+    }
+
+    @Test
+    public void concurrentUpdatesShouldAllLand() throws Exception {
+        ShardedStore<Integer, Person> store = new ShardedStore<>(8);
+        for (int k = 0; k < 100; k++) {
+            store.put(k, aPerson);
+        }
+
+        run(4, () -> {
+            List<CompletableFuture<Person>> updates = new ArrayList<>();
+            for (int i = 0; i < 10_000; i++) {
+                updates.add(store.update(i % 100, age, a -> a + 1));
+            }
+            updates.forEach(CompletableFuture::join);
+        });
+
+        for (int k = 0; k < 100; k++) {
+            assertThat(store.get(k, age), is(400));
+        }
+    }
+
+    @Test
+    public void transactionShouldFailIfWhatItReadHasChanged() throws Exception {
+        ShardedStore<String, Person> store = new ShardedStore<>(4);
+        store.put("joyo", aPerson).get();
+        store.put("bo", aPerson).get();
+
+        ShardedStore<String, Person>.Transaction t = store.begin();
+        int joyos = t.get("joyo", age);
+        t.update("bo", age, a -> a + joyos + 1);
+        store.update("joyo", age, a -> a + 5).get();
+
+        assertThat(t.commit(), is(false));
+        assertThat(store.get("bo", age), is(0));
+    }
+
+    @Test
+    public void concurrentTransfersShouldConserveTheTotal() throws Exception {
+        ShardedStore<Integer, Person> store = new ShardedStore<>(8);
+        for (int k = 0; k < 10; k++) {
+            store.put(k, new Person("" + k, 100, aPerson.address));
+        }
+
+        run(4, () -> {
+            for (int i = 0; i < 2_000; i++) {
+                int from = i % 10;
+                int to = (i * 7 + 3) % 10;
+                if (from == to) {
+                    continue;
+                }
+                boolean committed;
+                do {
+                    committed = store.begin()
+                            .update(from, age, a -> a - 1)
+                            .update(to, age, a -> a + 1)
+                            .commit();
+                } while (!committed);
+            }
+        });
+
+        int total = 0;
+        for (int k = 0; k < 10; k++) {
+            total += store.get(k, age);
+        }
+        assertThat(total, is(1_000));
+    }
+
+    @Test
+    public void writerShouldApplyOneBatchThenHandTheRestOn() throws Exception {
+        List<Runnable> handedOn = new ArrayList<>();
+        ShardedStore<Integer, Person> store = new ShardedStore<>(1, handedOn::add);
+        store.put(0, aPerson).get();
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch queued = new CountDownLatch(1);
+
+        Thread writer = new Thread(() -> store.update(0, age, a -> {
+            writing.countDown();
+            try {
+                queued.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return a + 1;
+        }));
+        writer.start();
+        writing.await();
+        List<CompletableFuture<Person>> updates = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            updates.add(store.update(0, age, a -> a + 1));
+        }
+        queued.countDown();
+        writer.join();
+
+        assertThat(updates.get(999).isDone(), is(false));
+        assertThat(handedOn.size(), is(1));
+        while (!handedOn.isEmpty()) {
+            handedOn.remove(0).run();
+        }
+        assertThat(updates.get(999).get().age, is(1_001));
+    }
+
+    private static void run(int threads, Runnable task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(task));
+            }
+            for (Future<?> f : futures) {
+                f.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
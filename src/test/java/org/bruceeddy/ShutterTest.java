@@ -19,6 +19,8 @@ import static co.unruly.matchers.OptionalMatchers.empty;
 import static java.util.stream.Stream.concat;
 import static org.bruceeddy.Shutters.gen;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.junit.Assert.assertThat;
 
 public class ShutterTest {
@@ -91,6 +93,44 @@ public class ShutterTest {
         assertThat(set, IsEmptyCollection.empty());
     }
 
+    @Test
+    public void setOptionalShouldSetPopulatedTargetDirectly() {
+        List<Integer> set = head.setOptional(xs, 5);
+        assertThat(set, IsIterableContainingInOrder.contains(5, 2, 3));
+    }
+
+    @Test
+    public void modifyShouldModifyPopulatedTargetDirectly() {
+        List<Integer> set = head.modify(xs, x -> x + 10);
+        assertThat(set, IsIterableContainingInOrder.contains(11, 2, 3));
+    }
+
+    @Test
+    public void modifyShouldNotModifyEmptyTargetDirectly() {
+        List<Integer> set = head.modify(ys, x -> x + 10);
+        assertThat(set, is(ys));
+    }
+
+    @Test
+    public void modifyShouldKeepSourceWhenTargetIsTheSame() {
+        assertThat(head.modify(xs, x -> x), is(sameInstance(xs)));
+    }
+
+    @Test
+    public void modifyAllShouldModifyPopulatedTargetsAndKeepEmptyOnes() {
+        List<List<Integer>> set = head.modifyAll(Arrays.asList(xs, ys), x -> x + 10);
+        assertThat(set.get(0), IsIterableContainingInOrder.contains(11, 2, 3));
+        assertThat(set.get(1), is(sameInstance(ys)));
+    }
+
+    @Test
+    public void modifyAllShouldModifyAnArray() {
+        @SuppressWarnings("unchecked")
+        List<Integer>[] set = head.modifyAll(new List[]{xs, ys}, x -> x + 10);
+        assertThat(set[0], IsIterableContainingInOrder.contains(11, 2, 3));
+        assertThat(set[1], is(sameInstance(ys)));
+    }
+
     @Test
     public void modifyOptionalShouldModifyPopulatedTarget() {
         Optional<List<Integer>> set = head.modifyOptional(x -> x + 10).apply(xs);
@@ -102,6 +142,52 @@ public class ShutterTest {
         Optional<List<Integer>> set = head.modifyOptional(x -> x + 10).apply(ys);
         assertThat(set, empty());
     }
-}
 
+    @Test
+    public void getOrNullShouldGetTargetOrNull() {
+        assertThat(head.getOrNull(xs), is(1));
+        assertThat(head.getOrNull(ys), is(nullValue()));
+    }
 
+    @Test
+    public void modifyOrSameShouldKeepSourceWithNoTarget() {
+        assertThat(head.modifyOrSame(ys, x -> x + 10), is(sameInstance(ys)));
+        assertThat(head.modifyOrSame(xs, x -> x + 10), IsIterableContainingInOrder.contains(11, 2, 3));
+    }
+
+    @Test
+    public void ofNullableShutterShouldTreatNullAsNoTarget() {
+        Shutter<LensTest.Person, LensTest.Address> address =
+                Shutters.ofNullable(p -> p.address, (a, p) -> new LensTest.Person(p.name, p.age, a));
+        LensTest.Person homeless = new LensTest.Person("Bo", 9, null);
+
+        assertThat(address.getOptional(homeless), empty());
+        assertThat(address.nonEmpty(homeless), is(true));
+        assertThat(address.modify(homeless, a -> new LensTest.Address(1, a.streetName)), is(sameInstance(homeless)));
+    }
+
+    @Test
+    public void shutterShouldComposeWithLensOnEitherSide() {
+        Shutter<List<List<Integer>>, Integer> headOfHead = head.compose(Lenses.<List<List<Integer>>, List<Integer>>gen(ls -> ls.get(0), (l, ls) -> Collections.singletonList(l)));
+        Shutter<List<Integer>, Integer> headDigit = head.andThen(Lenses.<Integer, Integer>gen(i -> i % 10, (d, i) -> i - i % 10 + d));
+        List<List<Integer>> xss = Collections.singletonList(xs);
+
+        assertThat(headOfHead.getOptional(xss), contains(1));
+        assertThat(headOfHead.modify(xss, x -> x + 10).get(0), IsIterableContainingInOrder.contains(11, 2, 3));
+        assertThat(headOfHead.modify(xss, x -> x), is(sameInstance(xss)));
+        assertThat(headDigit.setOptional(Arrays.asList(21, 2), 5), IsIterableContainingInOrder.contains(25, 2));
+        assertThat(headDigit.modify(ys, d -> d + 1), is(sameInstance(ys)));
+    }
+
+    @Test
+    public void shutterShouldComposeWithShutter() {
+        Shutter<Integer, Integer> positive = Shutters.ofNullable(i -> i > 0 ? i : null, (j, i) -> i > 0 ? j : i);
+        Shutter<List<Integer>, Integer> positiveHead = head.andThen(positive);
+        List<Integer> negative = Arrays.asList(-1, 2);
+
+        assertThat(positiveHead.getOptional(xs), contains(1));
+        assertThat(positiveHead.getOptional(negative), empty());
+        assertThat(positiveHead.setOptional(negative, 7), is(sameInstance(negative)));
+        assertThat(positiveHead.modify(xs, x -> x * 7), IsIterableContainingInOrder.contains(7, 2, 3));
+    }
+}
@@ -1,30 +1,30 @@
 package org.bruceeddy;
 
+import org.junit.After;
+import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.function.Function;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 import static java.util.Arrays.asList;
-import static org.bruceeddy.TraversalTest.Traversals.genList;
-import static org.bruceeddy.TraversalTest.Traversals.genPair;
+import static java.util.stream.Collectors.toList;
+import static org.bruceeddy.LensTest.Address;
+import static org.bruceeddy.LensTest.Person;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.hamcrest.collection.IsIterableContainingInOrder.contains;
 import static org.junit.Assert.assertThat;
 
 public class TraversalTest {
 
-    interface Traversal<S,A> {
-
-        Function<S,List<A>> getAll();
-
-        Function<S,List<A>> setList(A i);
-
-        Function<S,Pair<A>> setPair(A i);
-    }
-
     static class Pair<V> {
         V a;
         V b;
@@ -53,69 +53,225 @@ public class TraversalTest {
         }
     }
 
-    static class Traversals {
-
-        public static <S,V> Traversal<S,V> genList(Function<S,Iterator<V>> f)  {
-            return new Traversal<S, V>() {
-                @Override
-                public Function<S, List<V>> getAll() {
-                    return s -> {
-                        List<V> all = new LinkedList<>();
-                        f.apply(s).forEachRemaining(all::add);
-                        return all;
-                    };
-                }
-
-                @Override
-                public Function<S, List<V>> setList(V i) {
-                    return s -> {
-                        List<V> all = new LinkedList<>();
-                        f.apply(s).forEachRemaining(a -> all.add(i));
-                        return all;
-                    };
-                }
-
-                @Override
-                public Function<S, Pair<V>> setPair(V i) {
-                    return s -> new Pair<>(i, i);
-                }
-            };
-        }
+    static <A> Traversal<Pair<A>, A> genPair() {
+        return Traversals.gen(p -> asList(p.a, p.b), (l, p) -> new Pair<>(l.get(0), l.get(1)));
+    }
 
-        public static <A> Traversal<List<A>,A> genList()  {
-            return genList(l -> l.iterator());
-        }
+    private ForkJoinPool pool;
 
-        public static <A> Traversal<Pair<A>,A> genPair()  {
-            return genList(p -> asList(p.a,p.b).iterator());
-        }
+    @Before
+    public void createPool() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @After
+    public void shutdownPool() {
+        pool.shutdown();
     }
 
     @Test
     public void getAllShouldGetAllTargetsOfList()  {
         List<Integer> xs = asList(1,2,3,4,5);
-        Traversal<List<Integer>,Integer> trav = genList();
-        assertThat(trav.getAll().apply(xs), contains(1, 2, 3, 4, 5));
+        Traversal<List<Integer>,Integer> trav = Traversals.list();
+        assertThat(trav.getAll(xs), contains(1, 2, 3, 4, 5));
     }
 
     @Test
     public void getAllShouldGetAllTargetsOfPair()  {
-        Pair<Integer> xs = new Pair(1,2);
+        Pair<Integer> xs = new Pair<>(1,2);
         Traversal<Pair<Integer>,Integer> trav = genPair();
-        assertThat(trav.getAll().apply(xs), contains(1, 2));
+        assertThat(trav.getAll(xs), contains(1, 2));
     }
 
     @Test
     public void setShouldSetAllTargetsOfList()  {
         List<Integer> xs = asList(1,2,3,4,5);
-        Traversal<List<Integer>,Integer> trav = genList();
-        assertThat(trav.setList(0).apply(xs), contains(0, 0, 0, 0, 0));
+        Traversal<List<Integer>,Integer> trav = Traversals.list();
+        assertThat(trav.set(0).apply(xs), contains(0, 0, 0, 0, 0));
     }
 
     @Test
     public void setShouldSetAllTargetsOfPair()  {
-        Pair<Integer> xs = new Pair(1,2);
+        Pair<Integer> xs = new Pair<>(1,2);
+        Traversal<Pair<Integer>,Integer> trav = genPair();
+        assertThat(trav.set(xs, 0), is(new Pair<>(0,0)));
+    }
+
+    @Test
+    public void modifyShouldModifyAllTargetsOfArray()  {
+        Integer[] xs = {1, 2, 3};
+        Traversal<Integer[],Integer> trav = Traversals.array();
+        assertThat(asList(trav.modify(xs, x -> x * 10)), contains(10, 20, 30));
+        assertThat(asList(xs), contains(1, 2, 3));
+    }
+
+    @Test
+    public void modifyWhichChangesNothingShouldKeepTheSource()  {
+        List<Integer> xs = range(100_000);
+        Traversal<List<Integer>,Integer> list = Traversals.list();
+        Pair<Integer> pair = new Pair<>(1, 2);
+        Traversal<Pair<Integer>,Integer> pairs = genPair();
+
+        assertThat(list.modify(xs, x -> x), is(sameInstance(xs)));
+        assertThat(list.parallel(pool).modify(xs, x -> x), is(sameInstance(xs)));
+        assertThat(pairs.modify(pair, x -> x), is(sameInstance(pair)));
+    }
+
+    @Test
+    public void foldMapShouldCombineTargetsInOrder()  {
+        Traversal<List<Integer>,Integer> trav = Traversals.list();
+        assertThat(trav.foldMap(asList(1, 2, 3), String::valueOf, "", String::concat), is("123"));
+    }
+
+    @Test
+    public void parallelModifyShouldMatchSequentialModify()  {
+        List<Integer> xs = range(100_000);
+        Traversal<List<Integer>,Integer> trav = Traversals.list();
+
+        assertThat(trav.parallel(pool).modify(xs, x -> x + 1), is(trav.modify(xs, x -> x + 1)));
+    }
+
+    @Test
+    public void parallelModifyShouldHandleSourcesWhichDontSplitEvenly()  {
+        List<Integer> xs = new LinkedList<>(range(10_007));
+        Traversal<List<Integer>,Integer> trav = Traversals.list();
+
+        assertThat(trav.parallel(pool).modify(xs, x -> x + 1), is(trav.modify(xs, x -> x + 1)));
+    }
+
+    @Test
+    public void parallelModifyShouldModifyArraysInOrder()  {
+        Integer[] xs = range(50_000).toArray(new Integer[0]);
+        Integer[] modified = Traversals.<Integer>array().parallel(pool).modify(xs, x -> -x);
+
+        for (int i = 0; i < xs.length; i++) {
+            assertThat(modified[i], is(-i));
+        }
+    }
+
+    @Test
+    public void parallelFoldMapShouldCombineChunksInOrder()  {
+        List<Integer> xs = range(20_000);
+        Traversal<List<Integer>,Integer> trav = Traversals.list();
+
+        assertThat(trav.parallel(pool).foldMap(xs, x -> (long) x, 0L, Long::sum), is(199_990_000L));
+        assertThat(trav.parallel(pool).foldMap(xs, String::valueOf, "", String::concat), is(trav.foldMap(xs, String::valueOf, "", String::concat)));
+    }
+
+    @Test
+    public void traversalShouldComposeWithLenses()  {
+        class Street {
+            final List<Person> residents;
+
+            Street(List<Person> residents) {
+                this.residents = residents;
+            }
+        }
+        Lens<Street, List<Person>> residents = Lenses.gen(s -> s.residents, (r, s) -> new Street(r));
+        Lens<Person, Address> address = Lenses.gen(p -> p.address, (a, p) -> new Person(p.name, p.age, a));
+        Lens<Address, Integer> streetNumber = Lenses.gen(a -> a.streetNumber, (i, a) -> new Address(i, a.streetName));
+
+        Traversal<Street, Integer> streetNumbers = Traversals.<Person>list().andThen(streetNumber.compose(address)).compose(residents);
+        Street street = new Street(asList(
+                new Person("Joyo", 99, new Address(10, "The High Street")),
+                new Person("Bo", 9, new Address(12, "The High Street"))));
+
+        assertThat(streetNumbers.getAll(street), contains(10, 12));
+        assertThat(streetNumbers.getAll(streetNumbers.modify(street, n -> n + 1)), contains(11, 13));
+        assertThat(streetNumbers.parallel(pool).foldMap(street, n -> n, 0, Integer::sum), is(22));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void traverseShouldModifyInApplicatives()  {
+        Traversal<List<Integer>,Integer> trav = Traversals.list();
+        List<Integer> xs = asList(1, 2, 3);
+
+        Optional<List<Integer>> allPositive = trav.traverse(Applicatives.optional(), xs, x -> x > 0 ? Optional.of(x * 10) : Optional.empty());
+        Optional<List<Integer>> notAllPositive = trav.traverse(Applicatives.optional(), asList(1, -2), x -> x > 0 ? Optional.of(x) : Optional.empty());
+        List<List<Integer>> choices = trav.traverse(Applicatives.list(), asList(1, 2), x -> asList(x, -x));
+
+        assertThat(allPositive.get(), contains(10, 20, 30));
+        assertThat(notAllPositive.isPresent(), is(false));
+        assertThat(choices, contains(asList(1, 2), asList(1, -2), asList(-1, 2), asList(-1, -2)));
+    }
+
+    @Test
+    public void traverseThroughIdentityAndConstShouldModifyAndFold()  {
         Traversal<Pair<Integer>,Integer> trav = genPair();
-        assertThat(trav.setPair(0).apply(xs), is(new Pair(0,0)));
+        Pair<Integer> xs = new Pair<>(1, 2);
+
+        assertThat(trav.traverse(Applicatives.identity(), xs, x -> x + 1), is(new Pair<>(2, 3)));
+        assertThat(trav.traverse(Applicatives.constant(0, Integer::sum), xs, x -> x), is(3));
+    }
+
+    @Test
+    public void findShouldStopAtTheFirstMatch()  {
+        AtomicInteger got = new AtomicInteger();
+        Traversal<List<Integer>, Integer> counted = Traversals.<Integer>list().andThen(
+                Lenses.<Integer, Integer>gen(x -> { got.incrementAndGet(); return x; }, (x, old) -> x));
+
+        assertThat(counted.find(range(100_000), x -> x == 3), is(Optional.of(3)));
+        assertThat(got.get(), is(4));
+        assertThat(counted.exists(asList(1, 2), x -> x > 5), is(false));
+        assertThat(counted.headOption(asList(7, 8)), is(Optional.of(7)));
+        assertThat(counted.headOption(Collections.emptyList()), is(Optional.empty()));
+    }
+
+    @Test
+    public void nestedTraversalsShouldStreamLazily()  {
+        AtomicInteger opened = new AtomicInteger();
+        Traversal<List<List<Integer>>, Integer> all = Traversals.<List<Integer>>list().andThen(
+                Traversals.<List<Integer>, Integer>streaming(xs -> { opened.incrementAndGet(); return xs.stream(); }, (ys, xs) -> ys.collect(toList())));
+        List<List<Integer>> xss = asList(asList(1, 2), asList(3, -4), asList(5), range(100_000));
+
+        assertThat(all.find(xss, x -> x < 0), is(Optional.of(-4)));
+        assertThat(opened.get(), is(2));
+        assertThat(all.getAll(asList(asList(1, 2), asList(3))), contains(1, 2, 3));
+        assertThat(all.modify(asList(asList(1, 2), asList(3)), x -> x * 10), is(asList(asList(10, 20), asList(30))));
+        assertThat(all.foldMap(xss, x -> 1, 0, Integer::sum), is(100_005));
+    }
+
+    @Test
+    public void streamingTraversalShouldModifyWithoutCollectingFirst()  {
+        Traversal<Pair<Integer>, Integer> pair = Traversals.streaming(p -> Stream.of(p.a, p.b), (xs, p) -> {
+            Iterator<Integer> i = xs.iterator();
+            return new Pair<>(i.next(), i.next());
+        });
+
+        assertThat(pair.modify(new Pair<>(1, 2), x -> x + 1), is(new Pair<>(2, 3)));
+        assertThat(pair.parallel(pool).foldMap(new Pair<>(1, 2), x -> x, 0, Integer::sum), is(3));
+        assertThat(pair.traverse(Applicatives.optional(), new Pair<>(1, 2), x -> Optional.of(-x)), is(Optional.of(new Pair<>(-1, -2))));
+    }
+
+    @Test
+    public void parallelStreamingTraversalShouldKeepOrder()  {
+        Traversal<List<Integer>, Integer> trav = Traversals.streaming(List::stream, (xs, old) -> xs.collect(toList()));
+        List<Integer> xs = range(50_000);
+
+        assertThat(trav.parallel(pool).modify(xs, x -> x + 1), is(Traversals.<Integer>list().modify(xs, x -> x + 1)));
+    }
+
+    @Test
+    public void traversalShouldComposeWithShutters()  {
+        Shutter<Person, Address> address = Shutters.ofNullable(p -> p.address, (a, p) -> new Person(p.name, p.age, a));
+        Lens<Address, Integer> streetNumber = Lenses.gen(a -> a.streetNumber, (i, a) -> new Address(i, a.streetName));
+        Traversal<List<Person>, Integer> streetNumbers = Traversals.<Person>list().andThen(address).andThen(streetNumber);
+        Person homeless = new Person("Bo", 9, null);
+        List<Person> people = asList(new Person("Joyo", 99, new Address(10, "The High Street")), homeless);
+
+        assertThat(streetNumbers.getAll(people), contains(10));
+        assertThat(streetNumbers.foldMap(people, n -> n, 0, Integer::sum), is(10));
+        List<Person> modified = streetNumbers.modify(people, n -> n + 1);
+        assertThat(modified.get(0).address.streetNumber, is(11));
+        assertThat(modified.get(1), sameInstance(homeless));
+    }
+
+    private static List<Integer> range(int n) {
+        List<Integer> xs = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            xs.add(i);
+        }
+        return xs;
     }
 }